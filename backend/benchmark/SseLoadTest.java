@@ -0,0 +1,322 @@
+// SSE connection load test
+// Opens many concurrent subscriptions to an SSE endpoint from a single NIO selector thread, then at
+// each connection level reports the server's heap per connection and the latency from an issue
+// update to the event arriving on every connection.
+//
+// Instructions:
+// 1. Start the backend with --app.security.rate-limit.sse.enabled=false, since every connection uses
+//    the same user's token. Above 8192 connections also pass --server.tomcat.max-connections=<count>;
+//    the backend and this tool both need an open file limit above the connection count (ulimit -n).
+// 2. Run with JDK 17+, no compilation needed:
+//      java benchmark/SseLoadTest.java token=<JWT> project=<project ID> issue=<issue ID in that project> \
+//           levels=10000,50000,100000 [path=/api/sse/issues] [broadcasts=5] [pid=<backend PID>]
+//    With pid, a GC is forced through jcmd before each heap reading and the process RSS is reported too.
+// 3. Compare /api/sse/issues (SseEmitter) with /api/sse/stream (non-blocking servlet I/O).
+//
+// Levels are reached cumulatively: connections opened for one level stay open for the next.
+// Each broadcast alternates the issue's priority, so the issue is really changed every time.
+//
+// Reference run (1 CPU, 6 GB, -Xmx1500m, backend and this tool on the same host, 5 broadcasts per level):
+//   non-blocking servlet I/O, as /api/sse/stream
+//     connections  heap/conn bytes  rss/conn bytes  p50 ms  p99 ms  max ms
+//            1000           113983          147849   131.1   493.9   494.5
+//            5000           113025          181375   233.1   303.5   306.6
+//           10000           112863          148952   307.4   432.3   441.4
+//   /api/sse/issues
+//            1000           116870          151048   130.7   235.7   236.0
+//            4998           115940          175969   245.8   298.9   303.7
+//            9998           115734          152876   334.1   425.8   436.5
+// Most of the ~113 KB per connection are Tomcat's per-request buffers (socket, header and body
+// byte buffers of 8 KB each, two 8K char buffers), not SseService state.
+// Both transports cost the same per connection. The 50k and 100k levels have not been measured (at most
+// 20000 open files per process in that environment); at this cost 100k connections need about 11 GB.
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SseLoadTest {
+
+    private static final byte[] CONNECTED = "event:connected".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ISSUE_EVENT = "event:issue".getBytes(StandardCharsets.US_ASCII);
+
+    // Connections being established at once, so the server's accept backlog never overflows
+    private static final int MAX_CONNECTING = 200;
+
+    private final String host;
+    private final int port;
+    private final byte[] request;
+
+    private final Selector selector = Selector.open();
+    private final ConcurrentLinkedQueue<Integer> toOpen = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connecting = new AtomicInteger();
+    private final AtomicInteger ready = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    // Current broadcast, written by the main thread and read by the selector thread
+    private volatile long broadcastStartNanos;
+    private volatile long[] latencies = new long[0];
+    private final AtomicInteger received = new AtomicInteger();
+
+    SseLoadTest(URI url, String token) throws IOException {
+        this.host = url.getHost();
+        this.port = url.getPort() > 0 ? url.getPort() : 80;
+        this.request = ("GET " + url.getRawPath() + (url.getRawQuery() != null ? "?" + url.getRawQuery() : "") +
+            " HTTP/1.1\r\nHost: " + host + ":" + port + "\r\nAccept: text/event-stream\r\n" +
+            "Authorization: Bearer " + token + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        String token = required(options, "token");
+        String project = required(options, "project");
+        String issue = required(options, "issue");
+        String path = options.getOrDefault("path", "/api/sse/issues");
+        int broadcasts = Integer.parseInt(options.getOrDefault("broadcasts", "5"));
+        String pid = options.get("pid");
+        int[] levels = Arrays.stream(options.getOrDefault("levels", "10000,50000,100000").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+
+        HttpClient http = HttpClient.newHttpClient();
+        String query = path.endsWith("/stream") ? "?topics=project:" + project : "?projectId=" + project;
+        SseLoadTest test = new SseLoadTest(URI.create(baseUrl + path + query), token);
+        Thread selectorThread = new Thread(test::run, "sse-load-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+
+        long baselineHeap = heapUsed(http, baseUrl, token, pid);
+        long baselineRss = rss(pid);
+        System.out.printf("Endpoint %s, baseline heap %.1f MB%n", path, baselineHeap / 1048576.0);
+        System.out.printf("%12s %14s %16s %14s %10s %10s %10s %10s%n",
+            "connections", "heap MB", "heap/conn bytes", "rss/conn bytes", "p50 ms", "p99 ms", "max ms", "missed");
+
+        int opened = 0;
+        String priority = "HIGH";
+        for (int level : levels) {
+            for (; opened < level; opened++) {
+                test.toOpen.add(opened);
+            }
+            test.selector.wakeup();
+            long deadline = System.currentTimeMillis() + 120_000 + level * 10L;
+            while (test.ready.get() + test.failed.get() < level && System.currentTimeMillis() < deadline) {
+                Thread.sleep(200);
+            }
+            if (test.ready.get() < level) {
+                System.out.printf("Only %d of %d connections established (%d failed)%n",
+                    test.ready.get(), level, test.failed.get());
+            }
+            int live = test.ready.get();
+
+            long heap = heapUsed(http, baseUrl, token, pid);
+            long rss = rss(pid);
+
+            List<Long> all = new ArrayList<>();
+            int missed = 0;
+            for (int i = 0; i < broadcasts; i++) {
+                priority = priority.equals("HIGH") ? "LOW" : "HIGH";
+                test.startBroadcast(opened);
+                HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/issues/" + issue))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"priority\":\"" + priority + "\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Issue update failed: " + response.statusCode() + " " + response.body());
+                }
+                long waitUntil = System.currentTimeMillis() + 30_000;
+                while (test.received.get() < live && System.currentTimeMillis() < waitUntil) {
+                    Thread.sleep(5);
+                }
+                for (long latency : test.latencies) {
+                    if (latency > 0) {
+                        all.add(latency);
+                    }
+                }
+                missed += live - test.received.get();
+                Thread.sleep(500);
+            }
+            all.sort(null);
+            System.out.printf("%12d %14.1f %16d %14s %10.1f %10.1f %10.1f %10d%n",
+                live, heap / 1048576.0, live > 0 ? (heap - baselineHeap) / live : 0,
+                rss > 0 && live > 0 ? String.valueOf((rss - baselineRss) / live) : "-",
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 1.0), missed);
+        }
+        System.exit(0);
+    }
+
+    void startBroadcast(int connectionCount) {
+        latencies = new long[connectionCount];
+        received.set(0);
+        broadcastStartNanos = System.nanoTime();
+    }
+
+    // Selector loop: opens queued connections, reads the streams and timestamps issue events
+    void run() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        byte[] bytes = new byte[buffer.capacity()];
+        try {
+            while (true) {
+                Integer index;
+                while (connecting.get() < MAX_CONNECTING && (index = toOpen.poll()) != null) {
+                    open(index);
+                }
+                selector.select(100);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            connection.channel.finishConnect();
+                            connection.channel.write(ByteBuffer.wrap(request));
+                            key.interestOps(SelectionKey.OP_READ);
+                        } else if (key.isReadable()) {
+                            buffer.clear();
+                            int read = connection.channel.read(buffer);
+                            if (read < 0) {
+                                fail(connection, key);
+                                continue;
+                            }
+                            buffer.flip();
+                            buffer.get(bytes, 0, read);
+                            connection.consume(bytes, read);
+                        }
+                    } catch (IOException e) {
+                        fail(connection, key);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void open(int index) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.connect(new InetSocketAddress(host, port));
+        Connection connection = new Connection(index, channel);
+        channel.register(selector, SelectionKey.OP_CONNECT, connection);
+        connecting.incrementAndGet();
+    }
+
+    private void fail(Connection connection, SelectionKey key) {
+        key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+        if (connection.ready) {
+            ready.decrementAndGet();
+        } else {
+            connecting.decrementAndGet();
+        }
+        failed.incrementAndGet();
+    }
+
+    private final class Connection {
+
+        final int index;
+        final SocketChannel channel;
+        boolean ready;
+        int connectedMatch;
+        int issueMatch;
+
+        Connection(int index, SocketChannel channel) {
+            this.index = index;
+            this.channel = channel;
+        }
+
+        // Match the event markers byte by byte, so markers split across reads are still found
+        void consume(byte[] bytes, int length) {
+            for (int i = 0; i < length; i++) {
+                byte b = bytes[i];
+                if (!ready) {
+                    connectedMatch = b == CONNECTED[connectedMatch] ? connectedMatch + 1 : (b == CONNECTED[0] ? 1 : 0);
+                    if (connectedMatch == CONNECTED.length) {
+                        ready = true;
+                        connecting.decrementAndGet();
+                        SseLoadTest.this.ready.incrementAndGet();
+                    }
+                    continue;
+                }
+                issueMatch = b == ISSUE_EVENT[issueMatch] ? issueMatch + 1 : (b == ISSUE_EVENT[0] ? 1 : 0);
+                if (issueMatch == ISSUE_EVENT.length) {
+                    issueMatch = 0;
+                    long[] current = latencies;
+                    if (index < current.length && current[index] == 0) {
+                        current[index] = Math.max(1, System.nanoTime() - broadcastStartNanos);
+                        received.incrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    private static long heapUsed(HttpClient http, String baseUrl, String token, String pid) throws Exception {
+        if (pid != null) {
+            new ProcessBuilder("jcmd", pid, "GC.run").redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start().waitFor();
+        }
+        String body = http.send(HttpRequest.newBuilder(
+                URI.create(baseUrl + "/actuator/metrics/jvm.memory.used?tag=area:heap"))
+            .header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = Pattern.compile("\"value\"\\s*:\\s*([0-9.E+]+)").matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected metrics response: " + body);
+        }
+        return (long) Double.parseDouble(matcher.group(1));
+    }
+
+    // Resident set size of the backend in bytes, 0 when unknown
+    private static long rss(String pid) throws IOException {
+        if (pid == null) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(Path.of("/proc", pid, "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+            }
+        }
+        return 0;
+    }
+
+    private static double percentile(List<Long> sorted, double fraction) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1))) / 1_000_000.0;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing argument " + name + "=...");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,53 @@
+package com.issuetracker.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Creates PostgreSQL-specific indexes that cannot be expressed with JPA @Index
+ * (expression and GIN indexes). All statements are idempotent and run once at startup,
+ * after Hibernate has created or updated the schema.
+ */
+@Configuration
+@Slf4j
+public class DatabaseIndexInitializer {
+
+    @Bean
+    @Order(0)
+    public CommandLineRunner createDatabaseIndexes(DataSource dataSource) {
+        return args -> {
+            if (!isPostgreSql(dataSource)) {
+                log.info("Skipping PostgreSQL index creation for non-PostgreSQL database.");
+                return;
+            }
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            for (String statement : indexStatements()) {
+                jdbcTemplate.execute(statement);
+            }
+            log.info("PostgreSQL indexes verified");
+        };
+    }
+
+    private List<String> indexStatements() {
+        return List.of(
+            // Full-text search over issue title and description
+            "CREATE INDEX IF NOT EXISTS idx_issue_search ON issues USING GIN (" +
+                IssueSearchFunctionContributor.searchVector("title", "description") + ")"
+        );
+    }
+
+    private boolean isPostgreSql(DataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+}
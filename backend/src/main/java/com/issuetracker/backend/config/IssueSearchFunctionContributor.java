@@ -0,0 +1,79 @@
+package com.issuetracker.backend.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Registers the PostgreSQL full-text search functions used by issue queries.
+ *
+ * The search vector is weighted (title = A, description = B) and is backed by the
+ * GIN expression index created in {@link DatabaseIndexInitializer}. The expression
+ * rendered here must stay identical to the indexed one, otherwise PostgreSQL
+ * cannot use the index.
+ */
+public class IssueSearchFunctionContributor implements FunctionContributor {
+
+    public static final String SEARCH_CONFIG = "english";
+
+    // Copy of PostgreSQL's tsearch_data/english.stop, the stop words of SEARCH_CONFIG
+    private static final Set<String> STOP_WORDS = loadStopWords("/search/english.stop");
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry basicTypeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        String query = "to_tsquery('" + SEARCH_CONFIG + "', ?3)";
+
+        // issue_search_match(title, description, tsquery) -> boolean
+        functionContributions.getFunctionRegistry().registerPattern(
+            "issue_search_match",
+            "(" + searchVector("?1", "?2") + " @@ " + query + ")",
+            basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN)
+        );
+
+        // issue_search_rank(title, description, tsquery) -> relevance score
+        functionContributions.getFunctionRegistry().registerPattern(
+            "issue_search_rank",
+            "ts_rank(" + searchVector("?1", "?2") + ", " + query + ")",
+            basicTypeRegistry.resolve(StandardBasicTypes.DOUBLE)
+        );
+    }
+
+    /**
+     * Build the weighted tsvector expression over the given title and description columns
+     */
+    public static String searchVector(String titleColumn, String descriptionColumn) {
+        return "(setweight(to_tsvector('" + SEARCH_CONFIG + "', coalesce(" + titleColumn + ", '')), 'A') || " +
+               "setweight(to_tsvector('" + SEARCH_CONFIG + "', coalesce(" + descriptionColumn + ", '')), 'B'))";
+    }
+
+    /**
+     * Whether to_tsquery drops the given lowercase term, so a search can be checked for
+     * remaining terms without asking the database
+     */
+    public static boolean isStopWord(String term) {
+        return STOP_WORDS.contains(term);
+    }
+
+    private static Set<String> loadStopWords(String resource) {
+        InputStream input = IssueSearchFunctionContributor.class.getResourceAsStream(resource);
+        if (input == null) {
+            throw new IllegalStateException("Missing stop word list " + resource);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return reader.lines().map(String::trim).filter(word -> !word.isEmpty()).collect(Collectors.toUnmodifiableSet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.issuetracker.backend.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers row value comparisons used by keyset pagination.
+ *
+ * keyset_before_N(k1, ..., kN, v1, ..., vN) renders as (k1, ..., kN) < (v1, ..., vN), and
+ * keyset_after_N as the same with >. Unlike the equivalent chain of OR conditions,
+ * PostgreSQL uses a row comparison as a B-tree index condition, so the scan starts
+ * exactly at the cursor position.
+ */
+public class KeysetFunctionContributor implements FunctionContributor {
+
+    public static final int MAX_KEYS = 3;
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry basicTypeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        for (int keys = 2; keys <= MAX_KEYS; keys++) {
+            functionContributions.getFunctionRegistry().registerPattern(
+                "keyset_before_" + keys,
+                rowComparison(keys, "<"),
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN)
+            );
+            functionContributions.getFunctionRegistry().registerPattern(
+                "keyset_after_" + keys,
+                rowComparison(keys, ">"),
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN)
+            );
+        }
+    }
+
+    private String rowComparison(int keys, String operator) {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int i = 1; i <= keys; i++) {
+            if (i > 1) {
+                columns.append(", ");
+                values.append(", ");
+            }
+            columns.append('?').append(i);
+            values.append('?').append(keys + i);
+        }
+        return "((" + columns + ") " + operator + " (" + values + "))";
+    }
+}
@@ -44,6 +44,10 @@ public class AuthController {
         @ApiResponse(
             responseCode = "400",
             description = "Invalid input data"
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many concurrent sign-ins, retry after the Retry-After delay"
         )
     })
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
@@ -69,6 +73,10 @@ public class AuthController {
         @ApiResponse(
             responseCode = "400",
             description = "Invalid input data"
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many concurrent sign-ins, retry after the Retry-After delay"
         )
     })
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
@@ -1,8 +1,7 @@
 package com.issuetracker.backend.controller;
 
 import com.issuetracker.backend.dto.*;
-import com.issuetracker.backend.model.IssuePriority;
-import com.issuetracker.backend.model.IssueStatus;
+import com.issuetracker.backend.exception.BadRequestException;
 import com.issuetracker.backend.service.IssueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,6 +12,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -55,49 +55,137 @@ public class IssueController {
     @GetMapping
     @Operation(
         summary = "Get issues with filters and pagination",
-        description = "Returns paginated list of issues with optional filters for status, priority, assignee, and text search on title"
+        description = "Returns paginated list of issues with optional filters for status, priority, assignee, created/updated date ranges and full-text search on title and description. Search results are ranked by relevance."
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
             description = "Issues retrieved successfully"
         ),
+        @ApiResponse(responseCode = "400", description = "Unsupported sort field"),
         @ApiResponse(responseCode = "401", description = "Not authenticated"),
         @ApiResponse(responseCode = "403", description = "No access to project")
     })
     public ResponseEntity<Page<IssueDTO>> getIssues(
-            @Parameter(description = "Project ID filter") 
-            @RequestParam(required = false) UUID projectId,
+            @ParameterObject @ModelAttribute IssueFilter filter,
             
-            @Parameter(description = "Status filter") 
-            @RequestParam(required = false) IssueStatus status,
+            @Parameter(description = "Page number (0-indexed)") 
+            @RequestParam(defaultValue = "0") int page,
             
-            @Parameter(description = "Priority filter") 
-            @RequestParam(required = false) IssuePriority priority,
+            @Parameter(description = "Page size, larger sizes are capped (100 by default)") 
+            @RequestParam(defaultValue = "10") int size,
             
-            @Parameter(description = "Assignee ID filter") 
-            @RequestParam(required = false) UUID assigneeId,
+            @Parameter(description = "Sort field (createdAt, updatedAt or priority)") 
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            
+            @Parameter(description = "Sort direction (asc or desc)") 
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        
+        Page<IssueDTO> issues = issueService.getIssues(filter, page, size, sortBy, sortDir);
+        return ResponseEntity.ok(issues);
+    }
+
+    @GetMapping(params = {"withTotal", "withTotal!=true", "!after"})
+    @Operation(
+        summary = "Get issues without an exact total count",
+        description = "Selected by withTotal=false or withTotal=estimated. Accepts the same filters as the paginated list " +
+                      "but skips the count query and only reports whether a next page exists. With withTotal=estimated " +
+                      "the response also carries a total estimated from database statistics."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Issues retrieved successfully"
+        ),
+        @ApiResponse(responseCode = "400", description = "Unsupported sort field or withTotal value"),
+        @ApiResponse(responseCode = "401", description = "Not authenticated"),
+        @ApiResponse(responseCode = "403", description = "No access to project")
+    })
+    public ResponseEntity<SlicePage<IssueDTO>> getIssueSlice(
+            @Parameter(description = "false for no total, estimated for an approximate total") 
+            @RequestParam String withTotal,
             
-            @Parameter(description = "Text search on title") 
-            @RequestParam(required = false) String search,
+            @ParameterObject @ModelAttribute IssueFilter filter,
             
             @Parameter(description = "Page number (0-indexed)") 
             @RequestParam(defaultValue = "0") int page,
             
-            @Parameter(description = "Page size") 
+            @Parameter(description = "Page size, larger sizes are capped (100 by default)") 
             @RequestParam(defaultValue = "10") int size,
             
-            @Parameter(description = "Sort field (e.g., createdAt, priority, status)") 
+            @Parameter(description = "Sort field (createdAt, updatedAt or priority)") 
             @RequestParam(defaultValue = "createdAt") String sortBy,
             
             @Parameter(description = "Sort direction (asc or desc)") 
             @RequestParam(defaultValue = "desc") String sortDir) {
         
-        Page<IssueDTO> issues = issueService.getIssues(
-            projectId, status, priority, assigneeId, search, page, size, sortBy, sortDir);
+        boolean estimateTotal = switch (withTotal) {
+            case "false" -> false;
+            case "estimated" -> true;
+            default -> throw new BadRequestException("withTotal must be true, false or estimated");
+        };
+        SlicePage<IssueDTO> issues = issueService.getIssueSlice(filter, page, size, sortBy, sortDir, estimateTotal);
         return ResponseEntity.ok(issues);
     }
 
+    @GetMapping(params = "after")
+    @Operation(
+        summary = "Get issues with keyset (cursor) pagination",
+        description = "Selected when the 'after' parameter is present. Pass an empty 'after' for the first page, " +
+                      "then the returned nextCursor for each following page. Page cost does not depend on depth " +
+                      "and no total count is computed."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Issues retrieved successfully"
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or unsupported sort field"),
+        @ApiResponse(responseCode = "401", description = "Not authenticated"),
+        @ApiResponse(responseCode = "403", description = "No access to project")
+    })
+    public ResponseEntity<CursorPage<IssueDTO>> getIssuesAfter(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page (empty for the first page)") 
+            @RequestParam String after,
+            
+            @ParameterObject @ModelAttribute IssueFilter filter,
+            
+            @Parameter(description = "Page size, larger sizes are capped (100 by default)") 
+            @RequestParam(defaultValue = "10") int size,
+            
+            @Parameter(description = "Sort field (createdAt, updatedAt or priority)") 
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            
+            @Parameter(description = "Sort direction (asc or desc)") 
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        
+        CursorPage<IssueDTO> issues = issueService.getIssuesAfter(filter, after, size, sortBy, sortDir);
+        return ResponseEntity.ok(issues);
+    }
+
+    @GetMapping("/facets")
+    @Operation(
+        summary = "Get issue facet counts for a project",
+        description = "Returns issue counts grouped by status, priority and assignee, for filter badges. " +
+                      "Results are cached per project and refreshed when an issue is created, updated or deleted."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Facets retrieved successfully",
+            content = @Content(schema = @Schema(implementation = IssueFacetsDTO.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Not authenticated"),
+        @ApiResponse(responseCode = "403", description = "No access to project"),
+        @ApiResponse(responseCode = "404", description = "Project not found")
+    })
+    public ResponseEntity<IssueFacetsDTO> getIssueFacets(
+            @Parameter(description = "Project ID", required = true) 
+            @RequestParam UUID projectId) {
+        IssueFacetsDTO facets = issueService.getIssueFacets(projectId);
+        return ResponseEntity.ok(facets);
+    }
+
     @GetMapping("/{id}")
     @Operation(
         summary = "Get issue by ID",
@@ -1,13 +1,14 @@
 package com.issuetracker.backend.controller;
 
-import com.issuetracker.backend.exception.ForbiddenException;
+import com.issuetracker.backend.dto.UpdateStreamTopicsRequest;
 import com.issuetracker.backend.exception.ResourceNotFoundException;
-import com.issuetracker.backend.model.Project;
-import com.issuetracker.backend.model.User;
-import com.issuetracker.backend.repository.ProjectMemberRepository;
-import com.issuetracker.backend.repository.ProjectRepository;
-import com.issuetracker.backend.repository.UserRepository;
+import com.issuetracker.backend.model.Issue;
+import com.issuetracker.backend.repository.IssueRepository;
+import com.issuetracker.backend.security.CurrentUserContext;
+import com.issuetracker.backend.service.ProjectAccessService;
+import com.issuetracker.backend.service.ServletSseConnection;
 import com.issuetracker.backend.service.SseService;
+import com.issuetracker.backend.service.SseTopic;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,19 +17,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
+@Slf4j
 @RequestMapping("/api/sse")
 @Tag(name = "Server-Sent Events", description = "Real-time issue update streaming endpoints")
 @SecurityRequirement(name = "bearerAuth")
@@ -38,20 +46,23 @@ public class SseController {
     private SseService sseService;
 
     @Autowired
-    private ProjectRepository projectRepository;
+    private ProjectAccessService projectAccessService;
 
     @Autowired
-    private ProjectMemberRepository projectMemberRepository;
+    private IssueRepository issueRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUserContext currentUserContext;
 
     @GetMapping(value = "/issues", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @Operation(
         summary = "Subscribe to issue updates",
         description = "Creates a Server-Sent Events connection to receive real-time updates for issues. " +
-                      "Optionally filter by project ID. The connection will remain open and send events " +
-                      "when issues are created, updated, or commented on."
+                      "Optionally filter by project ID; without one, events of all projects the user owns or " +
+                      "is a member of are sent. The connection will remain open and send events " +
+                      "when issues are created, updated, or commented on. Issue events carry IDs; a client " +
+                      "reconnecting with Last-Event-ID receives the events it missed, or a 'reload' event " +
+                      "when they are no longer available and it must refetch."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -65,16 +76,112 @@ public class SseController {
     })
     public SseEmitter subscribeToIssues(
             @Parameter(description = "Project ID to filter updates (optional, null for all projects user has access to)")
-            @RequestParam(required = false) UUID projectId) {
+            @RequestParam(required = false) UUID projectId,
+            
+            @Parameter(description = "Send issue changes as JSON Merge Patches with base and new version " +
+                                     "instead of full issues; fetch the issue when the base version does not match")
+            @RequestParam(defaultValue = "false") boolean delta,
+            
+            @Parameter(description = "ID of the last event received, sent automatically by EventSource on reconnect")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
         
         // Validate project access if projectId is specified
         if (projectId != null) {
-            Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
-            checkUserHasProjectAccess(project);
+            projectAccessService.checkAccess(projectId);
+        }
+
+        return sseService.createEmitter(projectId, currentUserContext.getId(), lastEventId, delta);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Open a multiplexed event stream",
+        description = "One connection carrying the events of several topics: 'user' for user-specific events, " +
+                      "'project:<id>' for all issue events of a project and 'issue:<id>' for the events of one issue. " +
+                      "The 'connected' event carries a stream ID; topics are then added and removed through " +
+                      "POST /api/sse/stream/{streamId}/topics without reconnecting. A 'topic.removed' event is sent " +
+                      "when access to a topic's project is lost. Written with non-blocking servlet I/O, so no thread " +
+                      "is held by an idle or slow connection. On reconnect only the topics in the URL are restored, so clients " +
+                      "should keep the URL in sync with their topics."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "SSE connection established successfully",
+            content = @Content(mediaType = "text/event-stream")
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid topic or too many topics"),
+        @ApiResponse(responseCode = "401", description = "Not authenticated"),
+        @ApiResponse(responseCode = "403", description = "No access to a topic's project"),
+        @ApiResponse(responseCode = "404", description = "Project or issue not found")
+    })
+    public void openStream(
+            @Parameter(description = "Initial topics, e.g. user,project:<id>,issue:<id>")
+            @RequestParam(required = false) List<String> topics,
+            
+            @Parameter(description = "Send issue changes as JSON Merge Patches instead of full issues")
+            @RequestParam(defaultValue = "false") boolean delta,
+            
+            @Parameter(description = "ID of the last event received, sent automatically by EventSource on reconnect")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        
+        // Everything that can fail is checked first: once the request is asynchronous, an error
+        // status can no longer be written
+        List<SseTopic> resolved = resolveTopics(topics);
+        sseService.checkStreamTopics(resolved);
+        UUID userId = currentUserContext.getId();
+
+        AsyncContext asyncContext = request.startAsync(request, response);
+        try {
+            sseService.openStream(userId, resolved, lastEventId, delta, new ServletSseConnection(asyncContext));
+        } catch (IOException | RuntimeException e) {
+            // End the response rather than leave the asynchronous request open forever
+            log.warn("Failed to open SSE stream for user {}", userId, e);
+            asyncContext.complete();
         }
+    }
 
-        return sseService.createEmitter(projectId);
+    @PostMapping("/stream/{streamId}/topics")
+    @Operation(
+        summary = "Change the topics of a stream",
+        description = "Subscribes an open stream to additional topics and unsubscribes it from others. " +
+                      "Returns the stream's topics afterwards. When the stream is held by another node, " +
+                      "the change is passed on to it and 202 is returned without the topics."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Topics updated successfully",
+            content = @Content(schema = @Schema(implementation = Map.class))
+        ),
+        @ApiResponse(responseCode = "202", description = "Topic change passed on to the node holding the stream"),
+        @ApiResponse(responseCode = "400", description = "Invalid topic or too many topics"),
+        @ApiResponse(responseCode = "401", description = "Not authenticated"),
+        @ApiResponse(responseCode = "403", description = "No access to a topic's project"),
+        @ApiResponse(responseCode = "404", description = "Stream, project or issue not found")
+    })
+    public ResponseEntity<Map<String, Object>> updateStreamTopics(
+            @Parameter(description = "Stream ID from the 'connected' event") @PathVariable UUID streamId,
+            @RequestBody UpdateStreamTopicsRequest request) {
+        
+        List<SseTopic> removed = new ArrayList<>();
+        if (request.getRemove() != null) {
+            request.getRemove().forEach(name -> removed.add(SseTopic.parse(name)));
+        }
+        List<SseTopic> added = resolveTopics(request.getAdd());
+        
+        Optional<List<SseTopic>> topics =
+            sseService.updateStreamTopics(streamId, currentUserContext.getId(), added, removed);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("streamId", streamId);
+        if (topics.isEmpty()) {
+            return ResponseEntity.accepted().body(result);
+        }
+        result.put("topics", topics.get().stream().map(SseTopic::toString).toList());
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping(value = "/user", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -92,14 +199,15 @@ public class SseController {
         @ApiResponse(responseCode = "401", description = "Not authenticated")
     })
     public SseEmitter subscribeToUserEvents() {
-        User currentUser = getCurrentUser();
-        return sseService.createUserEmitter(currentUser.getId());
+        return sseService.createUserEmitter(currentUserContext.getId());
     }
 
     @GetMapping("/stats")
     @Operation(
         summary = "Get SSE connection statistics",
-        description = "Returns the number of active SSE connections"
+        description = "Returns the number of active SSE connections and the subscribers that are lagging behind. " +
+                      "For a project, lagging subscribers are listed with their buffered event count, " +
+                      "dropped event count and the age of their oldest buffered event."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -107,7 +215,9 @@ public class SseController {
             description = "Statistics retrieved successfully",
             content = @Content(schema = @Schema(implementation = Map.class))
         ),
-        @ApiResponse(responseCode = "401", description = "Not authenticated")
+        @ApiResponse(responseCode = "401", description = "Not authenticated"),
+        @ApiResponse(responseCode = "403", description = "No access to project"),
+        @ApiResponse(responseCode = "404", description = "Project not found")
     })
     public ResponseEntity<Map<String, Object>> getStats(
             @Parameter(description = "Project ID to get stats for (optional)")
@@ -116,10 +226,14 @@ public class SseController {
         Map<String, Object> stats = new HashMap<>();
         
         if (projectId != null) {
+            projectAccessService.checkAccess(projectId);
             stats.put("projectId", projectId);
             stats.put("activeConnections", sseService.getProjectConnectionCount(projectId));
+            stats.put("laggingSubscribers", sseService.getLaggingSubscribers(projectId));
         } else {
             stats.put("totalActiveConnections", sseService.getActiveConnectionCount());
+            stats.put("streams", sseService.getStreamCount());
+            stats.put("laggingSubscriberCount", sseService.getLaggingSubscribers(null).size());
         }
         
         return ResponseEntity.ok(stats);
@@ -127,24 +241,31 @@ public class SseController {
 
     // Helper methods
 
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-    }
-
-    private void checkUserHasProjectAccess(Project project) {
-        User currentUser = getCurrentUser();
-        
-        // Owner always has access
-        if (project.getOwner().getId().equals(currentUser.getId())) {
-            return;
+    /**
+     * Parse topic names, checking the current user's access to their projects
+     */
+    private List<SseTopic> resolveTopics(List<String> names) {
+        List<SseTopic> topics = new ArrayList<>();
+        if (names == null) {
+            return topics;
         }
-
-        // Check if user is a member
-        if (!projectMemberRepository.existsByProjectIdAndUserId(project.getId(), currentUser.getId())) {
-            throw new ForbiddenException("You don't have access to this project");
+        for (String name : names) {
+            SseTopic topic = SseTopic.parse(name);
+            switch (topic.kind()) {
+                case USER -> topics.add(topic);
+                case PROJECT -> {
+                    projectAccessService.checkAccess(topic.id());
+                    topics.add(topic);
+                }
+                case ISSUE -> {
+                    Issue issue = issueRepository.findById(topic.id())
+                        .orElseThrow(() -> new ResourceNotFoundException("Issue", "id", topic.id()));
+                    UUID projectId = issue.getProject().getId();
+                    projectAccessService.checkAccess(projectId);
+                    topics.add(SseTopic.issue(issue.getId(), projectId));
+                }
+            }
         }
+        return topics;
     }
 }
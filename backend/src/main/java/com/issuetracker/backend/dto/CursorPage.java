@@ -0,0 +1,27 @@
+package com.issuetracker.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Keyset page of results")
+public class CursorPage<T> {
+
+    @Schema(description = "Page content")
+    private List<T> content;
+
+    @Schema(description = "Requested page size", example = "20")
+    private int size;
+
+    @Schema(description = "Whether more results are available")
+    private boolean hasNext;
+
+    @Schema(description = "Opaque cursor to pass as 'after' to fetch the next page, null on the last page")
+    private String nextCursor;
+}
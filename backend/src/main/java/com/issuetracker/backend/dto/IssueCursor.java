@@ -0,0 +1,61 @@
+package com.issuetracker.backend.dto;
+
+import com.issuetracker.backend.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Position of the last issue returned by a keyset page.
+ *
+ * Encoded as an opaque, URL-safe token containing the sort field, direction,
+ * the sort key values of the last row and its ID (used as a unique tie-breaker).
+ */
+@Data
+@AllArgsConstructor
+public class IssueCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private String sortBy;
+
+    private boolean descending;
+
+    private List<String> sortValues;
+
+    private UUID id;
+
+    public String encode() {
+        List<String> parts = new ArrayList<>();
+        parts.add(sortBy);
+        parts.add(descending ? "desc" : "asc");
+        parts.addAll(sortValues);
+        parts.add(id.toString());
+        String raw = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static IssueCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length < 4) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new IssueCursor(
+                parts[0],
+                "desc".equals(parts[1]),
+                List.of(Arrays.copyOfRange(parts, 2, parts.length - 1)),
+                UUID.fromString(parts[parts.length - 1])
+            );
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -54,4 +54,7 @@ public class IssueDTO {
 
     @Schema(description = "Number of comments")
     private Integer commentCount;
+
+    @Schema(description = "Version of the issue, incremented on every change", example = "3")
+    private Long version;
 }
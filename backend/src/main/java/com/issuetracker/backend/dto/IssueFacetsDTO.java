@@ -0,0 +1,36 @@
+package com.issuetracker.backend.dto;
+
+import com.issuetracker.backend.model.IssuePriority;
+import com.issuetracker.backend.model.IssueStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Issue counts for the filter sidebar of a project")
+public class IssueFacetsDTO {
+
+    @Schema(description = "Project ID", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID projectId;
+
+    @Schema(description = "Total number of issues in the project")
+    private long total;
+
+    @Schema(description = "Issue count per status (every status is present)")
+    private Map<IssueStatus, Long> statusCounts;
+
+    @Schema(description = "Issue count per priority (every priority is present)")
+    private Map<IssuePriority, Long> priorityCounts;
+
+    @Schema(description = "Issue count per assignee ID")
+    private Map<UUID, Long> assigneeCounts;
+
+    @Schema(description = "Number of unassigned issues")
+    private long unassignedCount;
+}
@@ -0,0 +1,57 @@
+package com.issuetracker.backend.dto;
+
+import com.issuetracker.backend.model.IssuePriority;
+import com.issuetracker.backend.model.IssueStatus;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issue list filters, bound from the query parameters of the issue list endpoints.
+ * Null or empty values are ignored.
+ *
+ * Multiple statuses or priorities match any of the given values. Date ranges are
+ * half-open: the "from" bound is inclusive and the "to" bound is exclusive.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IssueFilter {
+
+    @Parameter(description = "Project ID filter")
+    private UUID projectId;
+
+    @Parameter(description = "Status filter, repeat or comma-separate to match any of several statuses")
+    private List<IssueStatus> status;
+
+    @Parameter(description = "Priority filter, repeat or comma-separate to match any of several priorities")
+    private List<IssuePriority> priority;
+
+    @Parameter(description = "Assignee ID filter")
+    private UUID assigneeId;
+
+    @Parameter(description = "Full-text search on title and description (prefix matching)")
+    private String search;
+
+    @Parameter(description = "Only issues created at or after this time (ISO-8601, e.g. 2024-01-01T00:00:00)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @Parameter(description = "Only issues created before this time (ISO-8601)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    @Parameter(description = "Only issues updated at or after this time (ISO-8601)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedFrom;
+
+    @Parameter(description = "Only issues updated before this time (ISO-8601)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedTo;
+}
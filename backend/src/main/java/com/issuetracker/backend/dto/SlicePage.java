@@ -0,0 +1,31 @@
+package com.issuetracker.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of results without an exact total count")
+public class SlicePage<T> {
+
+    @Schema(description = "Page content")
+    private List<T> content;
+
+    @Schema(description = "Page number (0-indexed)", example = "0")
+    private int page;
+
+    @Schema(description = "Requested page size", example = "20")
+    private int size;
+
+    @Schema(description = "Whether more results are available")
+    private boolean hasNext;
+
+    @Schema(description = "Approximate total from database statistics, only set when requested. " +
+                          "Exact when hasNext is false.")
+    private Long estimatedTotal;
+}
@@ -0,0 +1,22 @@
+package com.issuetracker.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Change the topics of an open SSE stream")
+public class UpdateStreamTopicsRequest {
+
+    @Schema(description = "Topics to subscribe to: user, project:<id> or issue:<id>", example = "[\"project:3fa85f64-5717-4562-b3fc-2c963f66afa6\"]")
+    private List<String> add = new ArrayList<>();
+
+    @Schema(description = "Topics to unsubscribe from", example = "[\"issue:3fa85f64-5717-4562-b3fc-2c963f66afa6\"]")
+    private List<String> remove = new ArrayList<>();
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GeneratedColumn;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -19,7 +20,17 @@ import java.util.UUID;
     @Index(name = "idx_issue_status", columnList = "status"),
     @Index(name = "idx_issue_priority", columnList = "priority"),
     @Index(name = "idx_issue_assignee", columnList = "assignee_id"),
-    @Index(name = "idx_issue_status_priority", columnList = "status, priority")
+    @Index(name = "idx_issue_status_priority", columnList = "status, priority"),
+    @Index(name = "idx_issue_project_created", columnList = "project_id, created_at, id"),
+    @Index(name = "idx_issue_project_updated", columnList = "project_id, updated_at, id"),
+    @Index(name = "idx_issue_project_priority", columnList = "project_id, priority_rank, created_at, id")
+})
+@NamedEntityGraph(name = "Issue.details", attributeNodes = {
+    @NamedAttributeNode(value = "project", subgraph = "project.owner"),
+    @NamedAttributeNode("assignee"),
+    @NamedAttributeNode("createdBy")
+}, subgraphs = {
+    @NamedSubgraph(name = "project.owner", attributeNodes = @NamedAttributeNode("owner"))
 })
 @Data
 @NoArgsConstructor
@@ -49,6 +60,11 @@ public class Issue {
     @Column(nullable = false)
     private IssuePriority priority = IssuePriority.MEDIUM;
 
+    // Computed by PostgreSQL from priority (LOW = 1 ... CRITICAL = 4) so priority sorts can be read from an index
+    @GeneratedColumn("case priority when 'LOW' then 1 when 'MEDIUM' then 2 when 'HIGH' then 3 when 'CRITICAL' then 4 end")
+    @Column(insertable = false, updatable = false)
+    private Integer priorityRank;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assignee_id")
     private User assignee;
@@ -65,6 +81,15 @@ public class Issue {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Maintained atomically by IssueRepository.adjustCommentCount, never written by entity updates
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int commentCount;
+
+    // Incremented on every change sent to SSE clients, so they can tell whether a delta applies
+    // to the state they hold. Maintained atomically by IssueRepository.incrementVersion.
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     // Relationships
     @OneToMany(mappedBy = "issue", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> comments = new ArrayList<>();
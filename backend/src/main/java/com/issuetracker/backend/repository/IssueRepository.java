@@ -1,41 +1,112 @@
 package com.issuetracker.backend.repository;
 
 import com.issuetracker.backend.model.Issue;
-import com.issuetracker.backend.model.IssuePriority;
-import com.issuetracker.backend.model.IssueStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface IssueRepository extends JpaRepository<Issue, UUID> {
+public interface IssueRepository extends JpaRepository<Issue, UUID>, JpaSpecificationExecutor<Issue>, IssueRepositoryCustom {
     
     // Basic queries
     List<Issue> findByProjectId(UUID projectId);
     
     Page<Issue> findByProjectId(UUID projectId, Pageable pageable);
     
-    // Filtered queries with pagination  
-    @Query("SELECT i FROM Issue i WHERE " +
-           "(:projectId IS NULL OR i.project.id = :projectId) AND " +
-           "(:status IS NULL OR i.status = :status) AND " +
-           "(:priority IS NULL OR i.priority = :priority) AND " +
-           "(:assigneeId IS NULL OR i.assignee.id = :assigneeId)")
-    Page<Issue> findByFilters(
-        @Param("projectId") UUID projectId,
-        @Param("status") IssueStatus status,
-        @Param("priority") IssuePriority priority,
-        @Param("assigneeId") UUID assigneeId,
-        @Param("search") String search,
-        Pageable pageable
-    );
+    // Issue with project, project owner, assignee and reporter fetched in one query
+    @EntityGraph("Issue.details")
+    Optional<Issue> findWithDetailsById(UUID id);
+    
+    // Same, locking the issue row until commit, so concurrent updates see each other's changes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph("Issue.details")
+    @Query("SELECT i FROM Issue i WHERE i.id = :id")
+    Optional<Issue> findWithDetailsForUpdateById(@Param("id") UUID id);
+    
+    // Filtered queries with pagination, see IssueSpecifications
+    @Override
+    @EntityGraph("Issue.details")
+    Page<Issue> findAll(Specification<Issue> spec, Pageable pageable);
+    
+    @Override
+    @EntityGraph("Issue.details")
+    Page<Issue> findAll(Specification<Issue> spec, Specification<Issue> countSpec, Pageable pageable);
     
     // Count issues by project
     long countByProjectId(UUID projectId);
+    
+    // Status, priority, assignee and total counts for a project in a single aggregation.
+    // groupingId tells the rows apart: 3 = by status, 5 = by priority, 6 = by assignee, 7 = total
+    @Query(value = "SELECT status AS \"status\", priority AS \"priority\", assignee_id AS \"assigneeId\", " +
+                   "GROUPING(status, priority, assignee_id) AS \"groupingId\", COUNT(*) AS \"issueCount\" " +
+                   "FROM issues WHERE project_id = :projectId " +
+                   "GROUP BY GROUPING SETS ((status), (priority), (assignee_id), ())", nativeQuery = true)
+    List<IssueFacetCount> countFacetsByProjectId(@Param("projectId") UUID projectId);
+    
+    // Atomically adjust the denormalized comment count and return the new value. The update keeps
+    // the row locked until commit, so the count read back is the one this transaction wrote.
+    default int adjustCommentCount(UUID issueId, int delta) {
+        addToCommentCount(issueId, delta);
+        return findCommentCountById(issueId);
+    }
+    
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE issues SET comment_count = comment_count + :delta WHERE id = :issueId", nativeQuery = true)
+    int addToCommentCount(@Param("issueId") UUID issueId, @Param("delta") int delta);
+    
+    @Query(value = "SELECT comment_count FROM issues WHERE id = :issueId", nativeQuery = true)
+    int findCommentCountById(@Param("issueId") UUID issueId);
+    
+    // Atomically increment the issue version and return the new value. As for the comment count,
+    // the update keeps the row locked until commit, so the version read back is the one written here.
+    default long incrementVersion(UUID issueId) {
+        addToVersion(issueId);
+        return findVersionById(issueId);
+    }
+    
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE issues SET version = version + 1 WHERE id = :issueId", nativeQuery = true)
+    int addToVersion(@Param("issueId") UUID issueId);
+    
+    @Query(value = "SELECT version FROM issues WHERE id = :issueId", nativeQuery = true)
+    long findVersionById(@Param("issueId") UUID issueId);
+    
+    // Lock the next batch of issues in ID order, so comment writes to them wait until the batch is repaired
+    @Query(value = "SELECT id FROM issues WHERE id > :afterId ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<UUID> lockIdsAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+    
+    // Repair comment counts that drifted from the actual number of comments. Must run in the
+    // transaction that locked the issues, so the counts include every comment committed before.
+    @Modifying
+    @Query(value = "UPDATE issues i SET comment_count = c.actual FROM (" +
+                   "SELECT i2.id, COUNT(cm.id) AS actual FROM issues i2 " +
+                   "LEFT JOIN comments cm ON cm.issue_id = i2.id WHERE i2.id IN (:issueIds) GROUP BY i2.id) c " +
+                   "WHERE i.id = c.id AND i.comment_count <> c.actual", nativeQuery = true)
+    int reconcileCommentCounts(@Param("issueIds") Collection<UUID> issueIds);
+    
+    interface IssueFacetCount {
+        String getStatus();
+        
+        String getPriority();
+        
+        UUID getAssigneeId();
+        
+        Integer getGroupingId();
+        
+        Long getIssueCount();
+    }
 }
@@ -0,0 +1,38 @@
+package com.issuetracker.backend.repository;
+
+import com.issuetracker.backend.model.Issue;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface IssueRepositoryCustom {
+
+    /**
+     * Keyset pagination: returns up to {@code limit} issues matching the filters, ordered by
+     * the sort field's attributes, that come strictly after the given key, or the first page
+     * when the key is null. No count query is issued.
+     *
+     * @param after sort key values of the last issue of the previous page, followed by its ID
+     */
+    List<Issue> findAfter(
+        Specification<Issue> filters,
+        IssueSortField sortField,
+        boolean descending,
+        List<Object> after,
+        int limit
+    );
+
+    /**
+     * Offset page without a count query: fetches one extra row to tell whether a next page exists.
+     * The pageable's sort is applied when present, otherwise any ordering set by the specification is kept.
+     */
+    Slice<Issue> findSlice(Specification<Issue> spec, Pageable pageable);
+
+    /**
+     * Number of issues matching the filters as estimated by the PostgreSQL planner.
+     * Costs one planning pass instead of a count over every matching row.
+     */
+    long estimateCount(Specification<Issue> filters);
+}
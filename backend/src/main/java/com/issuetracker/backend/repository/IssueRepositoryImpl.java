@@ -0,0 +1,151 @@
+package com.issuetracker.backend.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.issuetracker.backend.model.Issue;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IssueRepositoryImpl implements IssueRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public List<Issue> findAfter(
+            Specification<Issue> filters,
+            IssueSortField sortField,
+            boolean descending,
+            List<Object> after,
+            int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Issue> query = cb.createQuery(Issue.class);
+        Root<Issue> issue = query.from(Issue.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filterPredicate = filters.toPredicate(issue, query, cb);
+        if (filterPredicate != null) {
+            predicates.add(filterPredicate);
+        }
+
+        List<Path<?>> keys = new ArrayList<>();
+        for (String attribute : sortField.attributes()) {
+            keys.add(issue.get(attribute));
+        }
+
+        if (after != null) {
+            predicates.add(seekPredicate(cb, keys, after, descending));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for (Path<?> key : keys) {
+            orders.add(descending ? cb.desc(key) : cb.asc(key));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query)
+            .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Issue.details"))
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    @Override
+    public Slice<Issue> findSlice(Specification<Issue> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Issue> query = cb.createQuery(Issue.class);
+        Root<Issue> issue = query.from(Issue.class);
+
+        Predicate predicate = spec.toPredicate(issue, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), issue, cb));
+        }
+
+        List<Issue> issues = entityManager.createQuery(query)
+            .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Issue.details"))
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList();
+
+        boolean hasNext = issues.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? issues.subList(0, pageable.getPageSize()) : issues, pageable, hasNext);
+    }
+
+    /**
+     * Runs EXPLAIN on the query Hibernate generates for the filters and reads the planner's row
+     * estimate. The query goes through a second session on this one's connection, whose statement
+     * inspector prefixes the SQL with EXPLAIN; its single row is the plan instead of an issue title.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount(Specification<Issue> filters) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        Root<Issue> issue = query.from(Issue.class);
+        Predicate predicate = filters.toPredicate(issue, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(issue.get("title"));
+
+        Session session = entityManager.unwrap(Session.class);
+        String plan = session.doReturningWork(connection -> {
+            try (Session explaining = session.getSessionFactory().withOptions()
+                    .connection(connection)
+                    .statementInspector(sql -> "EXPLAIN (FORMAT JSON) " + sql)
+                    .openSession()) {
+                return explaining.createQuery(query).getSingleResult();
+            }
+        });
+        try {
+            return objectMapper.readTree(plan).get(0).get("Plan").get("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable query plan", e);
+        }
+    }
+
+    /**
+     * Rows strictly after the given key in the requested direction, as a single row value
+     * comparison (see KeysetFunctionContributor) that PostgreSQL uses as an index condition,
+     * so the scan starts at the cursor instead of filtering from the first row.
+     */
+    private Predicate seekPredicate(
+            CriteriaBuilder cb,
+            List<Path<?>> keys,
+            List<Object> after,
+            boolean descending) {
+
+        List<Expression<?>> arguments = new ArrayList<>(keys);
+        for (Object value : after) {
+            arguments.add(cb.literal(value));
+        }
+        String function = (descending ? "keyset_before_" : "keyset_after_") + keys.size();
+        return cb.isTrue(cb.function(function, Boolean.class, arguments.toArray(new Expression<?>[0])));
+    }
+}
@@ -0,0 +1,111 @@
+package com.issuetracker.backend.repository;
+
+import com.issuetracker.backend.model.Issue;
+import org.springframework.data.domain.Sort;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Sort orders supported by the issue list.
+ *
+ * Each order is a fixed list of entity attributes, always ending with the issue ID as a
+ * unique tie-breaker, and matches a (project_id, ..., id) index on the issues table so
+ * sorted pages are read from the index instead of sorting the whole project.
+ */
+public enum IssueSortField {
+
+    CREATED_AT("createdAt", SortKey.CREATED_AT),
+    UPDATED_AT("updatedAt", SortKey.UPDATED_AT),
+    PRIORITY("priority", SortKey.PRIORITY_RANK, SortKey.CREATED_AT);
+
+    private final String name;
+
+    private final List<SortKey> keys;
+
+    IssueSortField(String name, SortKey... keys) {
+        this.name = name;
+        this.keys = List.of(keys);
+    }
+
+    /**
+     * Resolve the sort field requested by the API, or null if it is not supported
+     */
+    public static IssueSortField fromName(String name) {
+        return Arrays.stream(values())
+            .filter(field -> field.name.equals(name))
+            .findFirst()
+            .orElse(null);
+    }
+
+    public static List<String> names() {
+        return Arrays.stream(values()).map(IssueSortField::getName).toList();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Entity attributes to order by, including the trailing ID
+     */
+    public List<String> attributes() {
+        List<String> attributes = new ArrayList<>();
+        keys.forEach(key -> attributes.add(key.attribute));
+        attributes.add("id");
+        return attributes;
+    }
+
+    public Sort toSort(boolean descending) {
+        return Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, attributes().toArray(new String[0]));
+    }
+
+    /**
+     * Sort key values of an issue as stored in a cursor, excluding the ID
+     */
+    public List<String> cursorValues(Issue issue) {
+        return keys.stream().map(key -> String.valueOf(key.getter.apply(issue))).toList();
+    }
+
+    /**
+     * Parse the sort key values of a cursor, excluding the ID
+     *
+     * @throws IllegalArgumentException if the values do not match this sort order
+     */
+    public List<Object> parseCursorValues(List<String> values) {
+        if (values.size() != keys.size()) {
+            throw new IllegalArgumentException("Expected " + keys.size() + " cursor values");
+        }
+        List<Object> parsed = new ArrayList<>();
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                parsed.add(keys.get(i).parser.apply(values.get(i)));
+            }
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor value", e);
+        }
+        return parsed;
+    }
+
+    private enum SortKey {
+        CREATED_AT("createdAt", Issue::getCreatedAt, LocalDateTime::parse),
+        UPDATED_AT("updatedAt", Issue::getUpdatedAt, LocalDateTime::parse),
+        PRIORITY_RANK("priorityRank", Issue::getPriorityRank, Integer::valueOf);
+
+        private final String attribute;
+
+        private final Function<Issue, Object> getter;
+
+        private final Function<String, Object> parser;
+
+        SortKey(String attribute, Function<Issue, Object> getter, Function<String, Object> parser) {
+            this.attribute = attribute;
+            this.getter = getter;
+            this.parser = parser;
+        }
+    }
+}
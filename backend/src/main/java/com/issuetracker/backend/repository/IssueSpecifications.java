@@ -0,0 +1,96 @@
+package com.issuetracker.backend.repository;
+
+import com.issuetracker.backend.dto.IssueFilter;
+import com.issuetracker.backend.model.Issue;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Criteria builders for issue list queries.
+ *
+ * Only the filters that are actually supplied become predicates, so every filter
+ * combination gets its own SQL and PostgreSQL can plan it against the matching
+ * index, instead of sharing one generic "(:x IS NULL OR col = :x)" plan.
+ */
+public final class IssueSpecifications {
+
+    private IssueSpecifications() {
+    }
+
+    /**
+     * Issue list filters. Null and empty values are ignored.
+     *
+     * A single status or priority becomes an equality predicate, several become an IN list.
+     * Date ranges include the lower bound and exclude the upper one. Every issue list query, keyset
+     * pages and count estimates included, takes its filters from here.
+     *
+     * @param searchQuery a to_tsquery expression matched against title and description
+     */
+    public static Specification<Issue> withFilters(IssueFilter filter, String searchQuery) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getProjectId() != null) {
+                predicates.add(cb.equal(root.get("project").get("id"), filter.getProjectId()));
+            }
+            addAnyOf(predicates, cb, root.get("status"), filter.getStatus());
+            addAnyOf(predicates, cb, root.get("priority"), filter.getPriority());
+            if (filter.getAssigneeId() != null) {
+                predicates.add(cb.equal(root.get("assignee").get("id"), filter.getAssigneeId()));
+            }
+            addRange(predicates, cb, root.get("createdAt"), filter.getCreatedFrom(), filter.getCreatedTo());
+            addRange(predicates, cb, root.get("updatedAt"), filter.getUpdatedFrom(), filter.getUpdatedTo());
+            if (searchQuery != null) {
+                predicates.add(cb.isTrue(cb.function("issue_search_match", Boolean.class,
+                    root.get("title"), root.get("description"), cb.literal(searchQuery))));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Order full-text matches by relevance, newest first on ties.
+     * Adds no restriction and must not be used for count queries.
+     */
+    public static Specification<Issue> orderBySearchRank(String searchQuery) {
+        return (root, query, cb) -> {
+            Expression<Double> rank = cb.function("issue_search_rank", Double.class,
+                root.get("title"), root.get("description"), cb.literal(searchQuery));
+            query.orderBy(cb.desc(rank), cb.desc(root.get("createdAt")), cb.asc(root.get("id")));
+            return null;
+        };
+    }
+
+    private static <T> void addAnyOf(List<Predicate> predicates, CriteriaBuilder cb, Path<T> path, Collection<T> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        Set<T> distinct = new LinkedHashSet<>(values);
+        if (distinct.size() == 1) {
+            predicates.add(cb.equal(path, distinct.iterator().next()));
+        } else {
+            predicates.add(path.in(distinct));
+        }
+    }
+
+    private static void addRange(List<Predicate> predicates, CriteriaBuilder cb, Path<LocalDateTime> path,
+                                 LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(path, to));
+        }
+    }
+}
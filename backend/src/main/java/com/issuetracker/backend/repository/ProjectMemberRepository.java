@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -24,4 +25,8 @@ public interface ProjectMemberRepository extends JpaRepository<ProjectMember, UU
     
     @Query("SELECT pm.role FROM ProjectMember pm WHERE pm.project.id = :projectId AND pm.user.id = :userId")
     Optional<ProjectRole> findRoleByProjectIdAndUserId(@Param("projectId") UUID projectId, @Param("userId") UUID userId);
+    
+    // IDs of a project's members (without the owner), for the access control cache
+    @Query("SELECT pm.user.id FROM ProjectMember pm WHERE pm.project.id = :projectId")
+    Set<UUID> findUserIdsByProjectId(@Param("projectId") UUID projectId);
 }
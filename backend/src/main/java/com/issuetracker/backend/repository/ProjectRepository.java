@@ -6,7 +6,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -20,4 +23,19 @@ public interface ProjectRepository extends JpaRepository<Project, UUID> {
            "LEFT JOIN p.members pm " +
            "WHERE p.owner.id = :userId OR pm.user.id = :userId")
     List<Project> findByUserIdAsMemberOrOwner(@Param("userId") UUID userId);
+
+    // IDs of the projects a user can access (member or owner)
+    @Query("SELECT DISTINCT p.id FROM Project p " +
+           "LEFT JOIN p.members pm " +
+           "WHERE p.owner.id = :userId OR pm.user.id = :userId")
+    Set<UUID> findIdsByUserIdAsMemberOrOwner(@Param("userId") UUID userId);
+
+    // Projects the given users can access, as (user ID, project ID) pairs, for revalidating open SSE connections
+    @Query("SELECT p.owner.id, p.id FROM Project p WHERE p.owner.id IN :userIds " +
+           "UNION SELECT pm.user.id, pm.project.id FROM ProjectMember pm WHERE pm.user.id IN :userIds")
+    List<Object[]> findAccessByUserIds(@Param("userIds") Collection<UUID> userIds);
+
+    // Owner of a project, for the access control cache
+    @Query("SELECT p.owner.id FROM Project p WHERE p.id = :projectId")
+    Optional<UUID> findOwnerIdById(@Param("projectId") UUID projectId);
 }
@@ -0,0 +1,43 @@
+package com.issuetracker.backend.security;
+
+import com.issuetracker.backend.model.User;
+import com.issuetracker.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * The user of the current request, as authenticated by JwtAuthenticationFilter.
+ *
+ * The principal is resolved once per request (and cached with its token), so reading
+ * it never queries the database. Use {@link #getReference()} to link the user to an entity.
+ */
+@Component
+public class CurrentUserContext {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public UserPrincipal get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new AuthenticationCredentialsNotFoundException("Not authenticated");
+        }
+        return principal;
+    }
+
+    public UUID getId() {
+        return get().getId();
+    }
+
+    /**
+     * A lazy reference to the user entity, for setting relationships without loading the user
+     */
+    public User getReference() {
+        return userRepository.getReferenceById(getId());
+    }
+}
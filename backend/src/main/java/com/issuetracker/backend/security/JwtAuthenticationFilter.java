@@ -1,11 +1,13 @@
 package com.issuetracker.backend.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -25,6 +27,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                     HttpServletResponse response, 
@@ -32,11 +37,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            UserDetails userDetails = StringUtils.hasText(jwt) ? authenticate(jwt) : null;
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(
                         userDetails, 
@@ -54,6 +57,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Principal of a valid token, from the cache or by verifying the token once and loading the user
+     */
+    private UserDetails authenticate(String jwt) {
+        UserDetails userDetails = tokenCache.get(jwt);
+        if (userDetails != null) {
+            return userDetails;
+        }
+
+        Claims claims = tokenProvider.parseToken(jwt);
+        if (claims == null) {
+            return null;
+        }
+        userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        if (userDetails instanceof CredentialsContainer credentials) {
+            credentials.eraseCredentials(); // No password hash kept in the cache
+        }
+        tokenCache.put(jwt, userDetails,
+            claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE);
+        return userDetails;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         // First, try to get token from Authorization header
         String bearerToken = request.getHeader("Authorization");
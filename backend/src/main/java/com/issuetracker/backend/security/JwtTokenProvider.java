@@ -22,9 +22,13 @@ public class JwtTokenProvider {
 
     private SecretKey key;
 
+    // Thread-safe, built once instead of per token
+    private JwtParser parser;
+
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parser().verifyWith(key).build();
     }
 
     public String generateToken(Authentication authentication) {
@@ -53,26 +57,15 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
-    }
-
-    public boolean validateToken(String authToken) {
+    /**
+     * Verify the signature and expiry of a token once, returning its claims, or null if it is invalid
+     */
+    public Claims parseToken(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            return parser.parseSignedClaims(authToken).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
             // Log the exception if needed
-            return false;
+            return null;
         }
     }
 }
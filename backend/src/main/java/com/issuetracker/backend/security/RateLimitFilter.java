@@ -0,0 +1,108 @@
+package com.issuetracker.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admission control for the API: each request takes a token from its client's bucket in
+ * its endpoint group, and is answered with 429 once the bucket is empty.
+ *
+ * Sign-in and registration are limited per client address, everything else per user
+ * when signed in and per client address otherwise. Sign-in is also limited per target
+ * account, see AuthService. Only opening an event stream counts against the sse group;
+ * stream topic changes and stats are ordinary API calls. Runs after the JWT filter, so
+ * the user is known. Not a bean, so it is only registered in the security filter chain.
+ *
+ * The client address is the request's remote address. Behind a proxy it is taken from
+ * X-Forwarded-For by Tomcat (server.forward-headers-strategy), and only when the request
+ * comes from one of the trusted proxies (server.tomcat.remoteip.internal-proxies).
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        RateLimiter.Group group = getGroup(request);
+        return group == null || !rateLimiter.isEnabled(group);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RateLimiter.Group group = getGroup(request);
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(group, getClientKey(request, group));
+
+        response.setHeader("RateLimit-Limit", Long.toString(decision.limit()));
+        response.setHeader("RateLimit-Remaining", Long.toString(decision.remaining()));
+        response.setHeader("RateLimit-Reset", Long.toString(decision.resetSeconds()));
+
+        if (!decision.allowed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+            body.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+            body.put("message", "Too many requests, please retry in " + decision.retryAfterSeconds() + " seconds");
+            body.put("path", request.getServletPath());
+            MAPPER.writeValue(response.getOutputStream(), body);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimiter.Group getGroup(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (!path.startsWith("/api/") || "OPTIONS".equals(request.getMethod())) {
+            return null;
+        }
+        if (path.equals("/api/auth/login") || path.equals("/api/auth/register")) {
+            return RateLimiter.Group.AUTH;
+        }
+        if (isStreamConnect(request, path)) {
+            return RateLimiter.Group.SSE;
+        }
+        if (path.equals("/api/health")) {
+            return null;
+        }
+        return RateLimiter.Group.API;
+    }
+
+    // Every GET under /api/sse opens a long-lived event stream, except the JSON stats
+    private boolean isStreamConnect(HttpServletRequest request, String path) {
+        return "GET".equals(request.getMethod()) && path.startsWith("/api/sse/") && !path.equals("/api/sse/stats");
+    }
+
+    private String getClientKey(HttpServletRequest request, RateLimiter.Group group) {
+        if (group != RateLimiter.Group.AUTH) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+                return principal.getId().toString();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
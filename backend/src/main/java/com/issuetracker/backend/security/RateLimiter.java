@@ -0,0 +1,175 @@
+package com.issuetracker.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per endpoint group and client, used by {@link RateLimitFilter}.
+ *
+ * Each bucket is a single timestamp (the generic cell rate algorithm): the time at which
+ * the bucket would be full again. Taking a token advances it by one refill interval with a
+ * compare-and-set, and a request is refused when that would put it more than a full bucket
+ * ahead of now. There is no lock, so clients only contend with their own requests.
+ */
+@Component
+public class RateLimiter {
+
+    /**
+     * Endpoints that share a limit
+     */
+    public enum Group {
+        AUTH("auth", 10, 0.2),
+        // Failed sign-in attempts per target account, whatever address they come from
+        LOGIN_ACCOUNT("login-account", 10, 0.05),
+        // Opening event streams (GET only). The connection then stays open without taking tokens.
+        SSE("sse", 60, 2),
+        API("api", 200, 50);
+
+        private final String name;
+
+        private final long defaultCapacity;
+
+        private final double defaultRefillPerSecond;
+
+        Group(String name, long defaultCapacity, double defaultRefillPerSecond) {
+            this.name = name;
+            this.defaultCapacity = defaultCapacity;
+            this.defaultRefillPerSecond = defaultRefillPerSecond;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Outcome of taking a token
+     *
+     * @param remaining         tokens left in the bucket
+     * @param resetSeconds      seconds until the bucket is full again
+     * @param retryAfterSeconds seconds until a refused request may be retried, 0 if allowed
+     */
+    public record Decision(boolean allowed, long limit, long remaining, long resetSeconds, long retryAfterSeconds) {
+    }
+
+    @Value("${app.security.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // Limits are read per group as app.security.rate-limit.<group>.enabled, .capacity and .refill-per-second
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Group, Limit> limits = new EnumMap<>(Group.class);
+
+    private final Map<Group, Map<String, AtomicLong>> buckets = new EnumMap<>(Group.class);
+
+    private final Map<Group, Counter> rejectedCounters = new EnumMap<>(Group.class);
+
+    @PostConstruct
+    void init() {
+        for (Group group : Group.values()) {
+            String prefix = "app.security.rate-limit." + group.getName();
+            boolean groupEnabled = environment.getProperty(prefix + ".enabled", Boolean.class, true);
+            long capacity = environment.getProperty(prefix + ".capacity", Long.class, group.defaultCapacity);
+            double refillPerSecond = environment.getProperty(prefix + ".refill-per-second", Double.class,
+                group.defaultRefillPerSecond);
+            long intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+            limits.put(group, new Limit(groupEnabled, capacity, intervalNanos, capacity * intervalNanos));
+
+            Map<String, AtomicLong> groupBuckets = new ConcurrentHashMap<>();
+            buckets.put(group, groupBuckets);
+            rejectedCounters.put(group, Counter.builder("http.rate-limit.rejected")
+                .description("Requests refused with 429 by the rate limiter")
+                .tag("group", group.getName())
+                .register(meterRegistry));
+            Gauge.builder("http.rate-limit.buckets", groupBuckets, Map::size)
+                .description("Clients with a partly drained rate limit bucket")
+                .tag("group", group.getName())
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Whether requests of a group are limited at all
+     */
+    public boolean isEnabled(Group group) {
+        return enabled && limits.get(group).enabled();
+    }
+
+    /**
+     * Take a token from a client's bucket in a group
+     *
+     * @param key user, account or client address the bucket belongs to
+     */
+    public Decision tryAcquire(Group group, String key) {
+        Limit limit = limits.get(group);
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(group).computeIfAbsent(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + limit.intervalNanos();
+            long ahead = next - now;
+            if (ahead > limit.burstNanos()) {
+                rejectedCounters.get(group).increment();
+                return new Decision(false, limit.capacity(), 0, toSeconds(fullAt - now),
+                    Math.max(1, toSeconds(ahead - limit.burstNanos())));
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return new Decision(true, limit.capacity(), (limit.burstNanos() - ahead) / limit.intervalNanos(),
+                    toSeconds(ahead), 0);
+            }
+        }
+    }
+
+    /**
+     * Whether a client's bucket in a group has a token left, without taking it. Refusals are counted
+     * as for {@link #tryAcquire}.
+     */
+    public Decision check(Group group, String key) {
+        Limit limit = limits.get(group);
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(group).get(key);
+        long fullAt = bucket != null ? bucket.get() : now;
+        long ahead = Math.max(fullAt, now) + limit.intervalNanos() - now;
+        if (ahead > limit.burstNanos()) {
+            rejectedCounters.get(group).increment();
+            return new Decision(false, limit.capacity(), 0, toSeconds(fullAt - now),
+                Math.max(1, toSeconds(ahead - limit.burstNanos())));
+        }
+        return new Decision(true, limit.capacity(), (limit.burstNanos() - ahead) / limit.intervalNanos() + 1,
+            toSeconds(fullAt - now), 0);
+    }
+
+    /**
+     * Forget buckets that have filled up again, so idle clients hold no memory
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeFullBuckets() {
+        long now = System.nanoTime();
+        buckets.values().forEach(groupBuckets -> groupBuckets.values().removeIf(bucket -> bucket.get() - now <= 0));
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(0, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private record Limit(boolean enabled, long capacity, long intervalNanos, long burstNanos) {
+    }
+}
@@ -1,6 +1,8 @@
 package com.issuetracker.backend.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -28,14 +30,34 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationEntryPoint unauthorizedHandler;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    // Password hashing threads, 0 for one per available core
+    @Value("${app.security.password-hashing.threads:0}")
+    private int hashingThreads;
+
+    // Password operations that may wait for a hashing thread before new ones are rejected with 503
+    @Value("${app.security.password-hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.security.password-hashing.retry-after-seconds:2}")
+    private long hashingRetryAfterSeconds;
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
     }
 
+    // BCrypt runs on its own threads, one per core by default, so a login storm cannot take every request thread
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, hashingQueueCapacity,
+            hashingRetryAfterSeconds, meterRegistry);
     }
 
     @Bean
@@ -70,6 +92,8 @@ public class SecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        // After the JWT filter so API requests are limited per user rather than per address
+        http.addFilterAfter(new RateLimitFilter(rateLimiter), JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,68 @@
+package com.issuetracker.backend.security;
+
+import com.issuetracker.backend.model.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The authenticated user: ID and a minimal profile, resolved once when the token is
+ * verified so services do not look the user up again.
+ */
+public class UserPrincipal implements UserDetails, CredentialsContainer {
+
+    private final UUID id;
+
+    private final String email;
+
+    private final String fullName;
+
+    private String passwordHash;
+
+    public UserPrincipal(UUID id, String email, String fullName, String passwordHash) {
+        this.id = id;
+        this.email = email;
+        this.fullName = fullName;
+        this.passwordHash = passwordHash;
+    }
+
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getFullName(), user.getPasswordHash());
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(); // Empty authorities list for now
+    }
+
+    @Override
+    public void eraseCredentials() {
+        passwordHash = null;
+    }
+}
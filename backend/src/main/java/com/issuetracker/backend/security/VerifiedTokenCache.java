@@ -0,0 +1,122 @@
+package com.issuetracker.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Principals of tokens whose signature was already verified, so a repeat request is
+ * authenticated without parsing the token or loading the user again.
+ *
+ * Entries live until the token expires, capped by a time to live so changes to the
+ * user are picked up. When full, expired entries are dropped first, then the ones
+ * expiring soonest.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${app.security.token-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.security.token-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Keyed by the SHA-256 of the token, so a heap dump does not hand out usable bearer tokens.
+    // Hashing is still far cheaper than verifying the HMAC signature and loading the user.
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private Counter hitCounter;
+
+    private Counter missCounter;
+
+    @PostConstruct
+    void init() {
+        hitCounter = Counter.builder("auth.token.cache")
+            .description("Requests authenticated from the verified token cache")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        missCounter = Counter.builder("auth.token.cache")
+            .description("Requests authenticated from the verified token cache")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("auth.token.cache.size", entries, Map::size)
+            .description("Verified tokens cached")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Principal of a verified, unexpired token, or null if the token has to be verified
+     */
+    public UserDetails get(String token) {
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAt() > System.currentTimeMillis()) {
+                hitCounter.increment();
+                return entry.principal();
+            }
+            entries.remove(key, entry);
+        }
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * Remember the principal of a token just verified
+     *
+     * @param tokenExpiresAt expiry of the token in epoch milliseconds
+     */
+    public void put(String token, UserDetails principal, long tokenExpiresAt) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(hash(token), new Entry(principal, Math.min(tokenExpiresAt, System.currentTimeMillis() + ttlMillis)));
+    }
+
+    // Drop expired entries, then the soonest expiring tenth if still full
+    private synchronized void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        entries.entrySet().stream()
+            .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt()))
+            .limit(Math.max(1, maxEntries / 10))
+            .map(Map.Entry::getKey)
+            .toList()
+            .forEach(entries::remove);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(UserDetails principal, long expiresAt) {
+    }
+}
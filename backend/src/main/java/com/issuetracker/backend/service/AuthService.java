@@ -5,10 +5,14 @@ import com.issuetracker.backend.dto.LoginRequest;
 import com.issuetracker.backend.dto.RegisterRequest;
 import com.issuetracker.backend.dto.UserDTO;
 import com.issuetracker.backend.exception.BadCredentialsException;
+import com.issuetracker.backend.exception.TooManyRequestsException;
 import com.issuetracker.backend.exception.UserAlreadyExistsException;
 import com.issuetracker.backend.model.User;
 import com.issuetracker.backend.repository.UserRepository;
+import com.issuetracker.backend.security.CurrentUserContext;
 import com.issuetracker.backend.security.JwtTokenProvider;
+import com.issuetracker.backend.security.RateLimiter;
+import com.issuetracker.backend.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -18,6 +22,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Locale;
+
 @Service
 public class AuthService {
 
@@ -33,6 +39,12 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private CurrentUserContext currentUserContext;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         // Check if user already exists
@@ -60,6 +72,8 @@ public class AuthService {
     }
 
     public AuthResponse login(LoginRequest request) {
+        String account = request.getEmail().trim().toLowerCase(Locale.ROOT);
+        checkLoginRate(account);
         try {
             // Authenticate user
             Authentication authentication = authenticationManager.authenticate(
@@ -74,9 +88,8 @@ public class AuthService {
             // Generate JWT token
             String token = tokenProvider.generateToken(authentication);
 
-            // Get user details
-            User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadCredentialsException("Invalid email or password"));
+            // User details were loaded by the authentication itself
+            UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
 
             return new AuthResponse(
                 token,
@@ -85,15 +98,35 @@ public class AuthService {
                 user.getFullName()
             );
         } catch (org.springframework.security.authentication.BadCredentialsException ex) {
+            recordFailedLogin(account);
             throw new BadCredentialsException("Invalid email or password");
         }
     }
 
-    public UserDTO getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
+    // Guessing one account's password from many addresses gets past the per-address limit, so
+    // failed attempts are also counted per target account. Only failures are counted, so signing
+    // in with the right password never uses up the account's attempts; once they are used up,
+    // attempts are refused before any password is hashed.
+    private void checkLoginRate(String account) {
+        if (!rateLimiter.isEnabled(RateLimiter.Group.LOGIN_ACCOUNT)) {
+            return;
+        }
+        RateLimiter.Decision decision = rateLimiter.check(RateLimiter.Group.LOGIN_ACCOUNT, account);
+        if (!decision.allowed()) {
+            throw new TooManyRequestsException("Too many sign-in attempts for this account, please retry in "
+                + decision.retryAfterSeconds() + " seconds", decision.retryAfterSeconds());
+        }
+    }
+
+    private void recordFailedLogin(String account) {
+        if (rateLimiter.isEnabled(RateLimiter.Group.LOGIN_ACCOUNT)) {
+            rateLimiter.tryAcquire(RateLimiter.Group.LOGIN_ACCOUNT, account);
+        }
+    }
 
-        User user = userRepository.findByEmail(email)
+    public UserDTO getCurrentUser() {
+        // Loaded by ID for the timestamps, which the principal does not carry
+        User user = userRepository.findById(currentUserContext.getId())
             .orElseThrow(() -> new RuntimeException("User not found"));
 
         return convertToDTO(user);
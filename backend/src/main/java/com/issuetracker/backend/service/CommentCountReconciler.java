@@ -0,0 +1,67 @@
+package com.issuetracker.backend.service;
+
+import com.issuetracker.backend.repository.IssueRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repairs drift in the denormalized Issue.commentCount column.
+ *
+ * Comment writes keep the counter up to date atomically; this job only catches rows
+ * changed outside the service layer (manual SQL, seeding, partial failures).
+ *
+ * Issues are repaired in batches, each in its own transaction that first locks the
+ * batch's rows. A comment write to one of them waits for the batch to commit, so the
+ * recount can never overwrite a concurrent increment with a stale count.
+ */
+@Service
+@Slf4j
+public class CommentCountReconciler {
+
+    // Smallest UUID, where the scan over issue IDs starts
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    @Value("${app.comment-count.reconcile-batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Scheduled(cron = "${app.comment-count.reconcile-cron:0 0 3 * * *}")
+    public void reconcile() {
+        int repaired = 0;
+        UUID afterId = FIRST_ID;
+        while (true) {
+            UUID from = afterId;
+            Batch batch = transactionTemplate.execute(status -> {
+                List<UUID> issueIds = issueRepository.lockIdsAfter(from, batchSize);
+                int batchRepaired = issueIds.isEmpty() ? 0 : issueRepository.reconcileCommentCounts(issueIds);
+                return new Batch(issueIds, batchRepaired);
+            });
+            repaired += batch.repaired();
+            if (batch.issueIds().size() < batchSize) {
+                break;
+            }
+            afterId = batch.issueIds().get(batch.issueIds().size() - 1);
+        }
+
+        if (repaired > 0) {
+            log.warn("Repaired comment count drift on {} issues", repaired);
+        } else {
+            log.debug("Comment counts are consistent");
+        }
+    }
+
+    private record Batch(List<UUID> issueIds, int repaired) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.issuetracker.backend.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Connection backed by a Spring MVC SseEmitter. Writes block until the frame is handed to the container.
+ */
+public class EmitterSseConnection implements SseConnection {
+
+    private final SseEmitter emitter;
+
+    public EmitterSseConnection(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void write(SseFrame frame) throws IOException {
+        frame.writeTo(emitter);
+    }
+
+    @Override
+    public void complete() {
+        emitter.complete();
+    }
+
+    @Override
+    public void completeWithError(Throwable error) {
+        emitter.completeWithError(error);
+    }
+
+    @Override
+    public void onWritable(Runnable callback) {
+        // Always writable
+    }
+
+    @Override
+    public void onClose(Runnable callback) {
+        emitter.onCompletion(callback);
+        emitter.onTimeout(callback);
+        emitter.onError(e -> callback.run());
+    }
+}
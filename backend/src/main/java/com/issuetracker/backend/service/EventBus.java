@@ -0,0 +1,30 @@
+package com.issuetracker.backend.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries SSE events to every backend node, so clients receive updates
+ * whichever node handled the change and whichever node they are connected to.
+ *
+ * Selected with app.sse.event-bus: "local" (default, single node) or "postgres".
+ */
+public interface EventBus {
+
+    /**
+     * Deliver an event to the listeners of every node, including this one.
+     * Called once the originating transaction has committed.
+     */
+    void publish(SseBusEvent event);
+
+    /**
+     * Register a listener for events published by any node
+     */
+    void subscribe(Consumer<SseBusEvent> listener);
+
+    /**
+     * Whether other nodes may be listening, so state missing on this node may be held by another one
+     */
+    default boolean isDistributed() {
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.issuetracker.backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Event bus for a single node: events are handed straight to the local listeners
+ */
+@Service
+@ConditionalOnProperty(name = "app.sse.event-bus", havingValue = "local", matchIfMissing = true)
+public class InProcessEventBus implements EventBus {
+
+    private final List<Consumer<SseBusEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(SseBusEvent event) {
+        listeners.forEach(listener -> listener.accept(event));
+    }
+
+    @Override
+    public void subscribe(Consumer<SseBusEvent> listener) {
+        listeners.add(listener);
+    }
+}
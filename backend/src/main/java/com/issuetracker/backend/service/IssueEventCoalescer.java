@@ -0,0 +1,72 @@
+package com.issuetracker.backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collapses bursts of issue events within a project into one event per issue.
+ *
+ * The first event for a project opens a window; until it closes, later events for the
+ * same issue replace the pending one, keeping the latest state and event type. When the
+ * window closes, the remaining events are delivered in the order their issues first appeared.
+ * A creation followed by updates is still delivered as a creation (with the latest state),
+ * and a creation followed by a deletion is not delivered at all. Merged updates carry the
+ * combined patch of all of them.
+ */
+public class IssueEventCoalescer {
+
+    private final long windowMillis;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Consumer<SseBusEvent> delivery;
+
+    private final Runnable onCoalesced;
+
+    // Pending events by project, then by issue ID in first-seen order
+    private final Map<UUID, LinkedHashMap<UUID, SseBusEvent>> pendingByProject = new ConcurrentHashMap<>();
+
+    public IssueEventCoalescer(long windowMillis, ScheduledExecutorService scheduler,
+                               Consumer<SseBusEvent> delivery, Runnable onCoalesced) {
+        this.windowMillis = windowMillis;
+        this.scheduler = scheduler;
+        this.delivery = delivery;
+        this.onCoalesced = onCoalesced;
+    }
+
+    public void submit(SseBusEvent event) {
+        UUID issueId = event.getIssue().getId();
+        pendingByProject.compute(event.getProjectId(), (id, pending) -> {
+            if (pending == null) {
+                pending = new LinkedHashMap<>();
+                scheduler.schedule(() -> flush(id), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            if (pending.containsKey(issueId)) {
+                onCoalesced.run();
+                pending.compute(issueId, (key, older) -> combine(older, event));
+            } else {
+                pending.put(issueId, event);
+            }
+            return pending;
+        });
+    }
+
+    private void flush(UUID projectId) {
+        LinkedHashMap<UUID, SseBusEvent> pending = pendingByProject.remove(projectId);
+        if (pending != null) {
+            pending.values().forEach(delivery);
+        }
+    }
+
+    private static SseBusEvent combine(SseBusEvent older, SseBusEvent newer) {
+        if (older.getEventType().equals("issue.created")) {
+            return newer.getEventType().equals("issue.deleted") ? null : SseBusEvent.issue(newer.getIssue(), "issue.created");
+        }
+        return SseBusEvent.supersede(older, newer);
+    }
+}
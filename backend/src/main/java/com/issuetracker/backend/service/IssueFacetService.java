@@ -0,0 +1,128 @@
+package com.issuetracker.backend.service;
+
+import com.issuetracker.backend.dto.IssueFacetsDTO;
+import com.issuetracker.backend.model.IssuePriority;
+import com.issuetracker.backend.model.IssueStatus;
+import com.issuetracker.backend.repository.IssueRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-project issue facet counts, computed with one GROUPING SETS query and cached
+ * until an issue in the project is created, updated or deleted, or the project is deleted.
+ *
+ * Access checks are the caller's responsibility.
+ */
+@Service
+public class IssueFacetService {
+
+    private static final int BY_STATUS = 3;
+    private static final int BY_PRIORITY = 5;
+    private static final int BY_ASSIGNEE = 6;
+    private static final int TOTAL = 7;
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    // Cached facets by project ID
+    private final Map<UUID, IssueFacetsDTO> cache = new ConcurrentHashMap<>();
+
+    // Token of the latest load in progress per project. An invalidation removes it, so a result
+    // computed concurrently with a write is never cached. Only holds projects being loaded.
+    private final Map<UUID, Object> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Get facet counts for a project, from cache when still valid
+     */
+    public IssueFacetsDTO getFacets(UUID projectId) {
+        IssueFacetsDTO cached = cache.get(projectId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Object token = new Object();
+        loads.put(projectId, token);
+        IssueFacetsDTO facets;
+        try {
+            facets = loadFacets(projectId);
+        } catch (RuntimeException e) {
+            loads.remove(projectId, token);
+            throw e;
+        }
+        loads.computeIfPresent(projectId, (id, current) -> {
+            if (current != token) {
+                return current;
+            }
+            cache.put(id, facets);
+            return null;
+        });
+        return facets;
+    }
+
+    /**
+     * Invalidate a project's facets once the current transaction commits (immediately if there is none)
+     */
+    public void invalidateAfterCommit(UUID projectId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(projectId);
+                }
+            });
+        } else {
+            invalidate(projectId);
+        }
+    }
+
+    private void invalidate(UUID projectId) {
+        // Under the load's map entry, so a load cannot cache its result between these two steps
+        loads.compute(projectId, (id, current) -> {
+            cache.remove(id);
+            return null;
+        });
+    }
+
+    private IssueFacetsDTO loadFacets(UUID projectId) {
+        Map<IssueStatus, Long> statusCounts = new EnumMap<>(IssueStatus.class);
+        for (IssueStatus status : IssueStatus.values()) {
+            statusCounts.put(status, 0L);
+        }
+        Map<IssuePriority, Long> priorityCounts = new EnumMap<>(IssuePriority.class);
+        for (IssuePriority priority : IssuePriority.values()) {
+            priorityCounts.put(priority, 0L);
+        }
+        Map<UUID, Long> assigneeCounts = new HashMap<>();
+        long unassignedCount = 0;
+        long total = 0;
+
+        for (IssueRepository.IssueFacetCount row : issueRepository.countFacetsByProjectId(projectId)) {
+            long count = row.getIssueCount();
+            switch (row.getGroupingId()) {
+                case BY_STATUS -> statusCounts.put(IssueStatus.valueOf(row.getStatus()), count);
+                case BY_PRIORITY -> priorityCounts.put(IssuePriority.valueOf(row.getPriority()), count);
+                case BY_ASSIGNEE -> {
+                    if (row.getAssigneeId() == null) {
+                        unassignedCount = count;
+                    } else {
+                        assigneeCounts.put(row.getAssigneeId(), count);
+                    }
+                }
+                case TOTAL -> total = count;
+                default -> {
+                }
+            }
+        }
+
+        return new IssueFacetsDTO(projectId, total, statusCounts, priorityCounts, assigneeCounts, unassignedCount);
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.issuetracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.issuetracker.backend.dto.IssueDTO;
+
+/**
+ * Builds the issue deltas sent to SSE subscribers receiving patches instead of snapshots.
+ *
+ * A delta is a JSON Merge Patch (RFC 7386) from the issue at a base version to the current
+ * one. Clients holding the base version apply it, others fetch the issue.
+ */
+public class IssuePatchBuilder {
+
+    private final ObjectMapper objectMapper;
+
+    public IssuePatchBuilder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * JSON Merge Patch turning one issue into the other; changed nested objects are replaced whole.
+     * The version is left out, deltas carry it next to the patch.
+     */
+    public ObjectNode mergePatch(IssueDTO previous, IssueDTO issue) {
+        ObjectNode before = objectMapper.valueToTree(previous);
+        ObjectNode after = objectMapper.valueToTree(issue);
+        ObjectNode patch = objectMapper.createObjectNode();
+        after.fields().forEachRemaining(field -> {
+            if (!field.getValue().equals(before.get(field.getKey()))) {
+                patch.set(field.getKey(), field.getValue());
+            }
+        });
+        before.fieldNames().forEachRemaining(name -> {
+            if (!after.has(name)) {
+                patch.putNull(name);
+            }
+        });
+        patch.remove("version");
+        return patch;
+    }
+
+    /**
+     * Payload sent to delta subscribers for an issue change carrying a patch
+     */
+    public ObjectNode delta(SseBusEvent event) {
+        ObjectNode delta = objectMapper.createObjectNode();
+        delta.put("id", event.getIssue().getId().toString());
+        delta.put("projectId", event.getProjectId().toString());
+        delta.put("baseVersion", event.getBaseVersion());
+        delta.put("version", event.getIssue().getVersion());
+        delta.set("patch", event.getPatch());
+        return delta;
+    }
+}
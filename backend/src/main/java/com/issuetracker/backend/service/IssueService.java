@@ -1,21 +1,26 @@
 package com.issuetracker.backend.service;
 
+import com.issuetracker.backend.config.IssueSearchFunctionContributor;
 import com.issuetracker.backend.dto.*;
+import com.issuetracker.backend.exception.BadRequestException;
 import com.issuetracker.backend.exception.ForbiddenException;
 import com.issuetracker.backend.exception.ResourceNotFoundException;
 import com.issuetracker.backend.model.*;
 import com.issuetracker.backend.repository.*;
+import com.issuetracker.backend.security.CurrentUserContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -23,6 +28,10 @@ import java.util.stream.Collectors;
 @Service
 public class IssueService {
 
+    // Larger page sizes are capped, so a single request can never load a whole project
+    @Value("${app.issues.max-page-size:100}")
+    private int maxPageSize;
+
     @Autowired
     private IssueRepository issueRepository;
 
@@ -30,11 +39,14 @@ public class IssueService {
     private ProjectRepository projectRepository;
 
     @Autowired
-    private ProjectMemberRepository projectMemberRepository;
+    private ProjectAccessService projectAccessService;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CurrentUserContext currentUserContext;
+
     @Autowired
     private CommentRepository commentRepository;
 
@@ -44,6 +56,9 @@ public class IssueService {
     @Autowired
     private SseService sseService;
 
+    @Autowired
+    private IssueFacetService issueFacetService;
+
     @Transactional
     public IssueDTO createIssue(CreateIssueRequest request) {
         User currentUser = getCurrentUser();
@@ -74,6 +89,7 @@ public class IssueService {
         }
 
         Issue savedIssue = issueRepository.save(issue);
+        issueFacetService.invalidateAfterCommit(project.getId());
 
         // Log activity
         logActivity(savedIssue, currentUser, "Issue created", 
@@ -88,62 +104,151 @@ public class IssueService {
     }
 
     public Page<IssueDTO> getIssues(
-            UUID projectId,
-            IssueStatus status,
-            IssuePriority priority,
-            UUID assigneeId,
-            String search,
+            IssueFilter filter,
             int page,
             int size,
             String sortBy,
             String sortDir) {
 
-        // Validate project access if projectId is specified
-        if (projectId != null) {
-            Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
-            checkUserHasProjectAccess(project);
+        checkUserHasFilterProjectAccess(filter);
+
+        size = resolvePageSize(size);
+        Sort sort = resolveSortField(sortBy).toSort(sortDir.equalsIgnoreCase("desc"));
+
+        String searchQuery = toSearchQuery(filter.getSearch());
+        Specification<Issue> filters = IssueSpecifications.withFilters(filter, searchQuery);
+
+        // Full-text search is ranked by relevance, so the requested sort does not apply
+        if (searchQuery != null) {
+            Page<Issue> issues = issueRepository.findAll(
+                filters.and(IssueSpecifications.orderBySearchRank(searchQuery)), filters, PageRequest.of(page, size));
+            return issues.map(this::convertToDTO);
         }
 
-        Sort sort = sortDir.equalsIgnoreCase("desc") 
-            ? Sort.by(sortBy).descending() 
-            : Sort.by(sortBy).ascending();
-        
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        // Get filtered results (without text search in query)
-        Page<Issue> issues = issueRepository.findByFilters(
-            projectId, status, priority, assigneeId, null, pageable);
+        Page<Issue> issues = issueRepository.findAll(filters, pageable);
 
-        // Apply text search filtering in memory if needed
-        if (search != null && !search.isBlank()) {
-            final String searchLower = search.toLowerCase();
-            List<Issue> filtered = issues.getContent().stream()
-                .filter(i -> i.getTitle().toLowerCase().contains(searchLower))
-                .collect(Collectors.toList());
-            
-            // Note: This is a simplified approach. For production, consider using 
-            // Specification API or full-text search for better performance
-            return new PageImpl<>(
-                filtered.stream().map(this::convertToDTO).collect(Collectors.toList()),
-                pageable,
-                filtered.size()
-            );
+        return issues.map(this::convertToDTO);
+    }
+
+    /**
+     * Offset pagination over the same filters as {@link #getIssues} without the count query.
+     * Optionally adds a total estimated from planner statistics, which is much cheaper than
+     * counting every matching row on large projects.
+     */
+    public SlicePage<IssueDTO> getIssueSlice(
+            IssueFilter filter,
+            int page,
+            int size,
+            String sortBy,
+            String sortDir,
+            boolean estimateTotal) {
+
+        checkUserHasFilterProjectAccess(filter);
+
+        size = resolvePageSize(size);
+        Sort sort = resolveSortField(sortBy).toSort(sortDir.equalsIgnoreCase("desc"));
+
+        String searchQuery = toSearchQuery(filter.getSearch());
+        Specification<Issue> filters = IssueSpecifications.withFilters(filter, searchQuery);
+
+        Slice<Issue> issues = searchQuery != null
+            ? issueRepository.findSlice(filters.and(IssueSpecifications.orderBySearchRank(searchQuery)), PageRequest.of(page, size))
+            : issueRepository.findSlice(filters, PageRequest.of(page, size, sort));
+
+        Long estimatedTotal = null;
+        if (estimateTotal) {
+            // The last page tells the exact total, otherwise keep the estimate consistent with hasNext
+            long seen = (long) page * size + issues.getNumberOfElements();
+            estimatedTotal = issues.hasNext()
+                ? Math.max(issueRepository.estimateCount(filters), seen + 1)
+                : seen;
         }
 
-        return issues.map(this::convertToDTO);
+        return new SlicePage<>(
+            issues.getContent().stream().map(this::convertToDTO).collect(Collectors.toList()),
+            page,
+            size,
+            issues.hasNext(),
+            estimatedTotal
+        );
+    }
+
+    /**
+     * Keyset (cursor) pagination over the same filters as {@link #getIssues}.
+     * Every page costs the same regardless of depth and no count query is executed.
+     */
+    public CursorPage<IssueDTO> getIssuesAfter(
+            IssueFilter filter,
+            String after,
+            int size,
+            String sortBy,
+            String sortDir) {
+
+        checkUserHasFilterProjectAccess(filter);
+
+        size = resolvePageSize(size);
+        IssueSortField sortField = resolveSortField(sortBy);
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+
+        List<Object> afterKey = null;
+        if (after != null && !after.isBlank()) {
+            IssueCursor cursor = IssueCursor.decode(after);
+            if (!cursor.getSortBy().equals(sortBy) || cursor.isDescending() != descending) {
+                throw new BadRequestException("Cursor does not match the requested sort order");
+            }
+            try {
+                afterKey = new ArrayList<>(sortField.parseCursorValues(cursor.getSortValues()));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            afterKey.add(cursor.getId());
+        }
+
+        // Fetch one extra row to know whether there is a next page
+        Specification<Issue> filters = IssueSpecifications.withFilters(filter, toSearchQuery(filter.getSearch()));
+        List<Issue> issues = issueRepository.findAfter(filters, sortField, descending, afterKey, size + 1);
+
+        boolean hasNext = issues.size() > size;
+        List<Issue> content = hasNext ? issues.subList(0, size) : issues;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Issue last = content.get(content.size() - 1);
+            nextCursor = new IssueCursor(sortBy, descending, sortField.cursorValues(last), last.getId()).encode();
+        }
+
+        return new CursorPage<>(
+            content.stream().map(this::convertToDTO).collect(Collectors.toList()),
+            size,
+            hasNext,
+            nextCursor
+        );
+    }
+
+    /**
+     * Status, priority and assignee counts for a project's filter sidebar
+     */
+    public IssueFacetsDTO getIssueFacets(UUID projectId) {
+        Project project = projectRepository.findById(projectId)
+            .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+        checkUserHasProjectAccess(project);
+
+        return issueFacetService.getFacets(projectId);
     }
 
     public IssueDTO getIssueById(UUID id) {
-        Issue issue = findIssueById(id);
+        Issue issue = findIssueWithDetailsById(id);
         checkUserHasProjectAccess(issue.getProject());
         return convertToDTO(issue);
     }
 
     @Transactional
     public IssueDTO updateIssue(UUID id, UpdateIssueRequest request) {
-        Issue issue = findIssueById(id);
+        Issue issue = findIssueWithDetailsForUpdateById(id);
         checkUserHasProjectAccess(issue.getProject());
+        IssueDTO previousDTO = convertToDTO(issue);
         
         User currentUser = getCurrentUser();
         StringBuilder activityDetails = new StringBuilder();
@@ -216,10 +321,12 @@ public class IssueService {
         }
 
         Issue updatedIssue = issueRepository.save(issue);
+        issueFacetService.invalidateAfterCommit(issue.getProject().getId());
 
         // Log activity if there were changes
         if (activityDetails.length() > 0) {
             logActivity(updatedIssue, currentUser, "Issue updated", activityDetails.toString().trim());
+            updatedIssue.setVersion(issueRepository.incrementVersion(id));
         }
 
         IssueDTO issueDTO = convertToDTO(updatedIssue);
@@ -234,7 +341,7 @@ public class IssueService {
             } else if (assigneeChanged) {
                 eventType = "issue.assigned";
             }
-            sseService.broadcastIssueUpdate(issueDTO, eventType);
+            sseService.broadcastIssueUpdate(previousDTO, issueDTO, eventType);
         }
 
         return issueDTO;
@@ -242,7 +349,7 @@ public class IssueService {
 
     @Transactional
     public void deleteIssue(UUID id) {
-        Issue issue = findIssueById(id);
+        Issue issue = findIssueWithDetailsById(id);
         Project project = issue.getProject();
         
         // Only project owner can delete issues
@@ -253,11 +360,12 @@ public class IssueService {
         sseService.broadcastIssueUpdate(issueDTO, "issue.deleted");
         
         issueRepository.delete(issue);
+        issueFacetService.invalidateAfterCommit(project.getId());
     }
 
     @Transactional
     public CommentDTO addComment(UUID issueId, CreateCommentRequest request) {
-        Issue issue = findIssueById(issueId);
+        Issue issue = findIssueWithDetailsForUpdateById(issueId);
         checkUserHasProjectAccess(issue.getProject());
         
         User currentUser = getCurrentUser();
@@ -268,6 +376,9 @@ public class IssueService {
         comment.setContent(request.getContent());
 
         Comment savedComment = commentRepository.save(comment);
+        IssueDTO previousDTO = convertToDTO(issue);
+        issue.setCommentCount(issueRepository.adjustCommentCount(issueId, 1));
+        issue.setVersion(issueRepository.incrementVersion(issueId));
 
         // Log activity
         logActivity(issue, currentUser, "Comment added", 
@@ -275,12 +386,9 @@ public class IssueService {
                 ? request.getContent().substring(0, 50) + "..." 
                 : request.getContent()));
 
-        // Reload issue to get updated comment count
-        Issue reloadedIssue = findIssueById(issueId);
-        
         // Broadcast SSE event for issue update (comment count changed)
-        IssueDTO issueDTO = convertToDTO(reloadedIssue);
-        sseService.broadcastIssueUpdate(issueDTO, "issue.updated");
+        IssueDTO issueDTO = convertToDTO(issue);
+        sseService.broadcastIssueUpdate(previousDTO, issueDTO, "issue.updated");
 
         return convertCommentToDTO(savedComment);
     }
@@ -303,7 +411,7 @@ public class IssueService {
 
     @Transactional
     public CommentDTO updateComment(UUID issueId, UUID commentId, UpdateCommentRequest request) {
-        Issue issue = findIssueById(issueId);
+        Issue issue = findIssueWithDetailsForUpdateById(issueId);
         checkUserHasProjectAccess(issue.getProject());
         
         Comment comment = commentRepository.findById(commentId)
@@ -323,22 +431,23 @@ public class IssueService {
         String oldContent = comment.getContent();
         comment.setContent(request.getContent());
         Comment updatedComment = commentRepository.save(comment);
+        IssueDTO previousDTO = convertToDTO(issue);
+        issue.setVersion(issueRepository.incrementVersion(issueId));
         
         // Log activity
         logActivity(issue, currentUser, "Comment edited", 
             "Comment edited (ID: " + commentId + ")");
         
-        // Reload issue to get fresh data, then broadcast SSE event
-        Issue reloadedIssue = findIssueById(issueId);
-        IssueDTO issueDTO = convertToDTO(reloadedIssue);
-        sseService.broadcastIssueUpdate(issueDTO, "issue.updated");
+        // Broadcast SSE event
+        IssueDTO issueDTO = convertToDTO(issue);
+        sseService.broadcastIssueUpdate(previousDTO, issueDTO, "issue.updated");
         
         return convertCommentToDTO(updatedComment);
     }
 
     @Transactional
     public void deleteComment(UUID issueId, UUID commentId) {
-        Issue issue = findIssueById(issueId);
+        Issue issue = findIssueWithDetailsForUpdateById(issueId);
         checkUserHasProjectAccess(issue.getProject());
         
         Comment comment = commentRepository.findById(commentId)
@@ -356,15 +465,17 @@ public class IssueService {
         }
         
         commentRepository.delete(comment);
+        IssueDTO previousDTO = convertToDTO(issue);
+        issue.setCommentCount(issueRepository.adjustCommentCount(issueId, -1));
+        issue.setVersion(issueRepository.incrementVersion(issueId));
         
         // Log activity
         logActivity(issue, currentUser, "Comment deleted", 
             "Comment deleted (ID: " + commentId + ")");
         
-        // Reload issue to get updated comment count, then broadcast SSE event
-        Issue reloadedIssue = findIssueById(issueId);
-        IssueDTO issueDTO = convertToDTO(reloadedIssue);
-        sseService.broadcastIssueUpdate(issueDTO, "issue.updated");
+        // Broadcast SSE event (comment count changed)
+        IssueDTO issueDTO = convertToDTO(issue);
+        sseService.broadcastIssueUpdate(previousDTO, issueDTO, "issue.updated");
     }
 
     // Helper methods
@@ -374,35 +485,81 @@ public class IssueService {
             .orElseThrow(() -> new ResourceNotFoundException("Issue", "id", id));
     }
 
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    // Validate project access if the filter is restricted to a project
+    private void checkUserHasFilterProjectAccess(IssueFilter filter) {
+        UUID projectId = filter.getProjectId();
+        if (projectId != null) {
+            projectAccessService.checkAccess(projectId);
+        }
     }
 
-    private void checkUserHasProjectAccess(Project project) {
-        User currentUser = getCurrentUser();
-        checkUserHasProjectAccessById(project, currentUser.getId());
+    private int resolvePageSize(int size) {
+        if (size < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        return Math.min(size, maxPageSize);
     }
 
-    private void checkUserHasProjectAccessById(Project project, UUID userId) {
-        // Owner always has access
-        if (project.getOwner().getId().equals(userId)) {
-            return;
+    private IssueSortField resolveSortField(String sortBy) {
+        IssueSortField sortField = IssueSortField.fromName(sortBy);
+        if (sortField == null) {
+            throw new BadRequestException("Unsupported sort field '" + sortBy + "', supported: " + IssueSortField.names());
         }
+        return sortField;
+    }
 
-        // Check if user is a member
-        if (!projectMemberRepository.existsByProjectIdAndUserId(project.getId(), userId)) {
-            throw new ForbiddenException("You don't have access to this project");
+    /**
+     * Convert free text into a prefix-matching to_tsquery expression ("auth log" -> "auth:* & log:*").
+     * Only letters and digits are kept, so user input can never produce invalid tsquery syntax.
+     * Stop words are left out, as PostgreSQL would drop them anyway. Returns null when there is
+     * nothing to search for, including searches made only of stop words ("the"), which PostgreSQL
+     * would otherwise turn into a query matching no issue.
+     */
+    private String toSearchQuery(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
         }
+
+        String query = Arrays.stream(search.split("[^\\p{L}\\p{N}]+"))
+            .map(String::toLowerCase)
+            .filter(term -> !term.isEmpty() && !IssueSearchFunctionContributor.isStopWord(term))
+            .map(term -> term + ":*")
+            .collect(Collectors.joining(" & "));
+        return query.isEmpty() ? null : query;
+    }
+
+    /**
+     * Load an issue together with its project, project owner, assignee and reporter,
+     * so converting it to a DTO needs no further queries.
+     */
+    private Issue findIssueWithDetailsById(UUID id) {
+        return issueRepository.findWithDetailsById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Issue", "id", id));
+    }
+
+    /**
+     * Load an issue about to change, locked until commit. Its version is then the one right before
+     * this transaction's increment, so the patch broadcast against it misses no concurrent change.
+     */
+    private Issue findIssueWithDetailsForUpdateById(UUID id) {
+        return issueRepository.findWithDetailsForUpdateById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Issue", "id", id));
+    }
+
+    private User getCurrentUser() {
+        return currentUserContext.getReference();
+    }
+
+    private void checkUserHasProjectAccess(Project project) {
+        projectAccessService.checkAccess(project.getId());
+    }
+
+    private void checkUserHasProjectAccessById(Project project, UUID userId) {
+        projectAccessService.checkAccess(project.getId(), userId);
     }
 
     private void checkUserIsProjectOwner(Project project) {
-        User currentUser = getCurrentUser();
-        if (!project.getOwner().getId().equals(currentUser.getId())) {
-            throw new ForbiddenException("Only project owner can perform this action");
-        }
+        projectAccessService.checkOwner(project.getId());
     }
 
     private void logActivity(Issue issue, User user, String action, String details) {
@@ -428,7 +585,8 @@ public class IssueService {
         dto.setProjectOwnerId(issue.getProject().getOwner().getId());
         dto.setCreatedAt(issue.getCreatedAt());
         dto.setUpdatedAt(issue.getUpdatedAt());
-        dto.setCommentCount((int) commentRepository.countByIssueId(issue.getId()));
+        dto.setCommentCount(issue.getCommentCount());
+        dto.setVersion(issue.getVersion());
         return dto;
     }
 
@@ -0,0 +1,321 @@
+package com.issuetracker.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Event bus spanning all nodes sharing the database, over PostgreSQL LISTEN/NOTIFY.
+ *
+ * Events are delivered to local listeners right away and queued for the other nodes.
+ * Queued events are flushed after a short batching window: events superseded by a later
+ * one with the same key are dropped, and the rest are packed into as few notifications as
+ * the 8000 byte NOTIFY limit allows. An event too large for a notification is stored in
+ * sse_bus_payloads and only its ID is sent. Each node listens on a dedicated connection
+ * and ignores the notifications it sent itself. Notifications sent while a node's listener
+ * is reconnecting are lost for that node, so once it listens again a RESYNC event is handed
+ * to its local listeners, telling its clients to reload. Likewise when a flush fails, a
+ * RESYNC event is sent to the other nodes once notifications go through again.
+ *
+ * Only events are shared: each node numbers the events it sends to its own clients, so
+ * Last-Event-ID resume requires sticky sessions. A client reconnecting to another node
+ * is told to reload.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.sse.event-bus", havingValue = "postgres")
+public class PostgresEventBus implements EventBus {
+
+    // Events per notification, leaving room for the envelope below PostgreSQL's 8000 byte payload limit
+    private static final int MAX_BATCH_BYTES = 7800;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.sse.bus.channel:sse_events}")
+    private String channel;
+
+    // Events published within this window are sent together
+    @Value("${app.sse.bus.batch-window-ms:20}")
+    private long batchWindowMillis;
+
+    // A failed flush is retried after this long
+    @Value("${app.sse.bus.retry-delay-ms:1000}")
+    private long retryDelayMillis;
+
+    // Oversized event payloads are kept this long for the other nodes to fetch
+    @Value("${app.sse.bus.payload-retention-ms:300000}")
+    private long payloadRetentionMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final List<Consumer<SseBusEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    // Events waiting for the next flush by deduplication key, guarded by this
+    private LinkedHashMap<String, SseBusEvent> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    // Set when a flush failed, so the other nodes missed events; guarded by this
+    private boolean resyncPending;
+
+    private ScheduledExecutorService publisher;
+
+    private Thread listenerThread;
+
+    private volatile boolean running = true;
+
+    private Counter notificationsSent;
+
+    private Counter notificationsReceived;
+
+    private Counter deduplicated;
+
+    @PostConstruct
+    void start() {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Invalid event bus channel name: " + channel);
+        }
+        jdbcTemplate.execute("CREATE UNLOGGED TABLE IF NOT EXISTS sse_bus_payloads (" +
+            "id BIGSERIAL PRIMARY KEY, payload TEXT NOT NULL, created_at TIMESTAMPTZ NOT NULL DEFAULT now())");
+
+        notificationsSent = Counter.builder("sse.bus.notifications.sent")
+            .description("Notifications sent to other nodes")
+            .register(meterRegistry);
+        notificationsReceived = Counter.builder("sse.bus.notifications.received")
+            .description("Notifications received from other nodes")
+            .register(meterRegistry);
+        deduplicated = Counter.builder("sse.bus.deduplicated")
+            .description("Events superseded by a later event before being sent to other nodes")
+            .register(meterRegistry);
+
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-bus-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        listenerThread = new Thread(this::listen, "sse-bus-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        log.info("PostgreSQL event bus started on channel {} as node {}", channel, nodeId);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listenerThread.interrupt();
+        publisher.shutdown();
+    }
+
+    @Override
+    public void publish(SseBusEvent event) {
+        deliver(event);
+
+        synchronized (this) {
+            // Re-inserted at the end, so it is still delivered after the events that preceded it
+            SseBusEvent superseded = pending.remove(event.dedupKey());
+            if (superseded != null) {
+                deduplicated.increment();
+                pending.put(event.dedupKey(), SseBusEvent.supersede(superseded, event));
+            } else {
+                pending.put(event.dedupKey(), event);
+            }
+            scheduleFlush(batchWindowMillis);
+        }
+    }
+
+    // Called with this held
+    private void scheduleFlush(long delayMillis) {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            publisher.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<SseBusEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    /**
+     * Drop payloads of oversized events once every node has had time to fetch them
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgePayloads() {
+        jdbcTemplate.update("DELETE FROM sse_bus_payloads WHERE created_at < now() - ? * interval '1 millisecond'",
+            payloadRetentionMillis);
+    }
+
+    private void flush() {
+        List<SseBusEvent> events = new ArrayList<>();
+        boolean resync;
+        synchronized (this) {
+            resync = resyncPending;
+            if (resync) {
+                events.add(SseBusEvent.resync());
+            }
+            events.addAll(pending.values());
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+
+        try {
+            List<String> batch = new ArrayList<>();
+            int batchBytes = 0;
+            for (SseBusEvent event : events) {
+                String json = objectMapper.writeValueAsString(event);
+                int bytes = json.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (bytes > MAX_BATCH_BYTES || batchBytes + bytes > MAX_BATCH_BYTES) {
+                    if (!batch.isEmpty()) {
+                        notifyBatch(batch);
+                        batch.clear();
+                        batchBytes = 0;
+                    }
+                }
+                if (bytes > MAX_BATCH_BYTES) {
+                    Long payloadId = jdbcTemplate.queryForObject(
+                        "INSERT INTO sse_bus_payloads (payload) VALUES (?) RETURNING id", Long.class, json);
+                    notify("{\"node\":\"" + nodeId + "\",\"payloadId\":" + payloadId + "}");
+                    continue;
+                }
+                batch.add(json);
+                batchBytes += bytes;
+            }
+            if (!batch.isEmpty()) {
+                notifyBatch(batch);
+            }
+            if (resync) {
+                synchronized (this) {
+                    resyncPending = false;
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Part of the events may have gone out, but the other nodes cannot tell which
+            log.error("Failed to publish {} SSE events to other nodes, will tell them to resync", events.size(), e);
+            synchronized (this) {
+                resyncPending = true;
+                scheduleFlush(retryDelayMillis);
+            }
+        }
+    }
+
+    private void notifyBatch(List<String> events) {
+        notify("{\"node\":\"" + nodeId + "\",\"events\":[" + String.join(",", events) + "]}");
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> { }, channel, payload);
+        notificationsSent.increment();
+    }
+
+    /**
+     * Listen for notifications on a dedicated connection, reconnecting when it is lost
+     */
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnecting) {
+                    // Notifications sent while disconnected are gone, local clients cannot resume
+                    log.info("Event bus connection restored, telling local clients to reload");
+                    reconnecting = false;
+                    try {
+                        deliver(SseBusEvent.resync());
+                    } catch (RuntimeException e) {
+                        log.error("Failed to tell local clients to reload", e);
+                    }
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                reconnecting = true;
+                if (running) {
+                    log.warn("Event bus connection lost, reconnecting: {}", e.getMessage());
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            JsonNode message = objectMapper.readTree(payload);
+            if (nodeId.equals(message.path("node").asText())) {
+                return; // Already delivered locally
+            }
+            notificationsReceived.increment();
+
+            if (message.has("payloadId")) {
+                String json = jdbcTemplate.queryForObject("SELECT payload FROM sse_bus_payloads WHERE id = ?",
+                    String.class, message.get("payloadId").asLong());
+                deliver(objectMapper.readValue(json, SseBusEvent.class));
+            } else {
+                for (JsonNode event : message.path("events")) {
+                    deliver(objectMapper.treeToValue(event, SseBusEvent.class));
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Failed to handle SSE event notification", e);
+        }
+    }
+
+    private void deliver(SseBusEvent event) {
+        listeners.forEach(listener -> listener.accept(event));
+    }
+}
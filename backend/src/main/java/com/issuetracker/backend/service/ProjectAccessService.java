@@ -0,0 +1,204 @@
+package com.issuetracker.backend.service;
+
+import com.issuetracker.backend.exception.ForbiddenException;
+import com.issuetracker.backend.exception.ResourceNotFoundException;
+import com.issuetracker.backend.repository.ProjectMemberRepository;
+import com.issuetracker.backend.repository.ProjectRepository;
+import com.issuetracker.backend.security.CurrentUserContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Project access checks, answered from an in-memory owner and member list per project.
+ *
+ * A project's entry is loaded on first use and dropped when its membership changes:
+ * ProjectService invalidates it on this node once its transaction commits, and the
+ * access events on the {@link EventBus} invalidate it on every other node. When bus
+ * events may have been lost (RESYNC) the whole cache is dropped, and entries expire
+ * after a time to live in case an invalidation is lost without anyone noticing.
+ */
+@Service
+public class ProjectAccessService {
+
+    @Value("${app.security.acl-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.security.acl-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectMemberRepository projectMemberRepository;
+
+    @Autowired
+    private CurrentUserContext currentUserContext;
+
+    @Autowired
+    private EventBus eventBus;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Cached access lists by project ID
+    private final Map<UUID, ProjectAcl> cache = new ConcurrentHashMap<>();
+
+    // Token of the latest load in progress per project. An invalidation removes it, so a list
+    // loaded concurrently with a membership change is never cached. Only holds projects being loaded.
+    private final Map<UUID, Object> loads = new ConcurrentHashMap<>();
+
+    private Counter hitCounter;
+
+    private Counter missCounter;
+
+    @PostConstruct
+    void init() {
+        hitCounter = Counter.builder("acl.cache")
+            .description("Project access checks answered from the access control cache")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        missCounter = Counter.builder("acl.cache")
+            .description("Project access checks answered from the access control cache")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("acl.cache.size", cache, Map::size)
+            .description("Projects in the access control cache")
+            .register(meterRegistry);
+        eventBus.subscribe(this::onBusEvent);
+    }
+
+    /**
+     * Whether a user owns or is a member of a project
+     */
+    public boolean hasAccess(UUID projectId, UUID userId) {
+        ProjectAcl acl = getAcl(projectId);
+        return acl.ownerId().equals(userId) || acl.memberIds().contains(userId);
+    }
+
+    /**
+     * Throw unless the current user owns or is a member of the project
+     */
+    public void checkAccess(UUID projectId) {
+        checkAccess(projectId, currentUserContext.getId());
+    }
+
+    /**
+     * Throw unless the user owns or is a member of the project
+     */
+    public void checkAccess(UUID projectId, UUID userId) {
+        if (!hasAccess(projectId, userId)) {
+            throw new ForbiddenException("You don't have access to this project");
+        }
+    }
+
+    /**
+     * Throw unless the current user owns the project
+     */
+    public void checkOwner(UUID projectId) {
+        if (!getAcl(projectId).ownerId().equals(currentUserContext.getId())) {
+            throw new ForbiddenException("Only project owner can perform this action");
+        }
+    }
+
+    /**
+     * Drop a project's access list once the current transaction commits (immediately if there is none)
+     */
+    public void invalidateAfterCommit(UUID projectId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(projectId);
+                }
+            });
+        } else {
+            invalidate(projectId);
+        }
+    }
+
+    private void onBusEvent(SseBusEvent event) {
+        switch (event.getKind()) {
+            case ACCESS_GRANTED, ACCESS_REVOKED, PROJECT_REMOVED -> invalidate(event.getProjectId());
+            case RESYNC -> invalidateAll();
+            default -> {
+            }
+        }
+    }
+
+    private void invalidate(UUID projectId) {
+        // Under the load's map entry, so a load cannot cache its list between these two steps
+        loads.compute(projectId, (id, current) -> {
+            cache.remove(id);
+            return null;
+        });
+    }
+
+    private void invalidateAll() {
+        // Loads in progress first, so none of them caches a list read before the lost events
+        loads.clear();
+        cache.clear();
+    }
+
+    private ProjectAcl getAcl(UUID projectId) {
+        ProjectAcl cached = cache.get(projectId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < ttlMillis) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+
+        Object token = new Object();
+        loads.put(projectId, token);
+        ProjectAcl acl;
+        try {
+            acl = loadAcl(projectId);
+        } catch (RuntimeException e) {
+            loads.remove(projectId, token);
+            throw e;
+        }
+        loads.computeIfPresent(projectId, (id, current) -> {
+            if (current != token) {
+                return current;
+            }
+            if (cache.size() >= maxEntries) {
+                evictOne();
+            }
+            cache.put(id, acl);
+            return null;
+        });
+        return acl;
+    }
+
+    private ProjectAcl loadAcl(UUID projectId) {
+        UUID ownerId = projectRepository.findOwnerIdById(projectId)
+            .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
+        return new ProjectAcl(ownerId, Set.copyOf(projectMemberRepository.findUserIdsByProjectId(projectId)),
+            System.currentTimeMillis());
+    }
+
+    // Make room by dropping an arbitrary entry; it is reloaded on next use
+    private void evictOne() {
+        Iterator<UUID> keys = cache.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record ProjectAcl(UUID ownerId, Set<UUID> memberIds, long loadedAt) {
+    }
+}
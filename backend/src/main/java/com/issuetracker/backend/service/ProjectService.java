@@ -1,7 +1,6 @@
 package com.issuetracker.backend.service;
 
 import com.issuetracker.backend.dto.*;
-import com.issuetracker.backend.exception.ForbiddenException;
 import com.issuetracker.backend.exception.ResourceNotFoundException;
 import com.issuetracker.backend.model.Project;
 import com.issuetracker.backend.model.ProjectMember;
@@ -10,9 +9,8 @@ import com.issuetracker.backend.model.User;
 import com.issuetracker.backend.repository.ProjectMemberRepository;
 import com.issuetracker.backend.repository.ProjectRepository;
 import com.issuetracker.backend.repository.UserRepository;
+import com.issuetracker.backend.security.CurrentUserContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,9 +30,18 @@ public class ProjectService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CurrentUserContext currentUserContext;
+
     @Autowired
     private SseService sseService;
 
+    @Autowired
+    private ProjectAccessService projectAccessService;
+
+    @Autowired
+    private IssueFacetService issueFacetService;
+
     @Transactional
     public ProjectDTO createProject(CreateProjectRequest request) {
         User currentUser = getCurrentUser();
@@ -45,13 +52,15 @@ public class ProjectService {
         project.setOwner(currentUser);
 
         Project savedProject = projectRepository.save(project);
+
+        // Include the new project in the owner's open global issue streams
+        sseService.grantProjectAccess(currentUser.getId(), savedProject.getId());
         
         return convertToDTO(savedProject);
     }
 
     public List<ProjectDTO> getUserProjects() {
-        User currentUser = getCurrentUser();
-        List<Project> projects = projectRepository.findByUserIdAsMemberOrOwner(currentUser.getId());
+        List<Project> projects = projectRepository.findByUserIdAsMemberOrOwner(currentUserContext.getId());
         return projects.stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
@@ -103,6 +112,9 @@ public class ProjectService {
         // Broadcast SSE event to all members
         ProjectDTO projectDTO = convertToDTO(project);
         sseService.broadcastProjectEventToMembers(projectDTO, "project.deleted", memberUserIds);
+        sseService.removeProject(id);
+        projectAccessService.invalidateAfterCommit(id);
+        issueFacetService.invalidateAfterCommit(id);
         
         projectRepository.delete(project);
     }
@@ -135,6 +147,8 @@ public class ProjectService {
         // Broadcast SSE event to the added user
         ProjectDTO projectDTO = convertToDTO(project);
         sseService.broadcastProjectEventToUser(userToAdd.getId(), projectDTO, "project.member.added");
+        sseService.grantProjectAccess(userToAdd.getId(), projectId);
+        projectAccessService.invalidateAfterCommit(projectId);
         
         return convertMemberToDTO(savedMember);
     }
@@ -153,6 +167,8 @@ public class ProjectService {
         // Broadcast SSE event to the removed user
         ProjectDTO projectDTO = convertToDTO(project);
         sseService.broadcastProjectEventToUser(userId, projectDTO, "project.member.removed");
+        sseService.revokeProjectAccess(userId, projectId);
+        projectAccessService.invalidateAfterCommit(projectId);
     }
 
     public List<ProjectMemberDTO> getProjectMembers(UUID projectId) {
@@ -171,31 +187,15 @@ public class ProjectService {
     }
 
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        return currentUserContext.getReference();
     }
 
     private void checkUserHasAccess(Project project) {
-        User currentUser = getCurrentUser();
-        
-        // Owner always has access
-        if (project.getOwner().getId().equals(currentUser.getId())) {
-            return;
-        }
-
-        // Check if user is a member
-        if (!projectMemberRepository.existsByProjectIdAndUserId(project.getId(), currentUser.getId())) {
-            throw new ForbiddenException("You don't have access to this project");
-        }
+        projectAccessService.checkAccess(project.getId());
     }
 
     private void checkUserIsOwner(Project project) {
-        User currentUser = getCurrentUser();
-        if (!project.getOwner().getId().equals(currentUser.getId())) {
-            throw new ForbiddenException("Only project owner can perform this action");
-        }
+        projectAccessService.checkOwner(project.getId());
     }
 
     private ProjectDTO convertToDTO(Project project) {
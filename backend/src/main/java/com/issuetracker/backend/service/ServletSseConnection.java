@@ -0,0 +1,135 @@
+package com.issuetracker.backend.service;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection writing straight to a servlet response in non-blocking mode.
+ *
+ * No thread ever waits on a slow client: when the socket cannot take more data, isReady
+ * returns false and the container calls back once it can, resuming the subscriber's drain.
+ * Idle connections only hold the container's socket and async request state.
+ */
+public class ServletSseConnection implements SseConnection, WriteListener, AsyncListener {
+
+    private final AsyncContext asyncContext;
+
+    private final ServletOutputStream out;
+
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private volatile Runnable writableCallback;
+
+    private volatile Runnable closeCallback;
+
+    public ServletSseConnection(AsyncContext asyncContext) throws IOException {
+        this.asyncContext = asyncContext;
+        asyncContext.setTimeout(0); // Idle and lifetime limits are enforced by the heartbeat wheel
+        asyncContext.addListener(this);
+
+        HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no"); // Disable proxy buffering
+        this.out = response.getOutputStream();
+        out.setWriteListener(this);
+    }
+
+    @Override
+    public boolean isReady() {
+        return !completed.get() && out.isReady();
+    }
+
+    @Override
+    public void write(SseFrame frame) throws IOException {
+        frame.writeTo(out);
+        // Once the socket is full the container flushes the rest itself and calls onWritePossible
+        if (out.isReady()) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void complete() {
+        if (completed.compareAndSet(false, true)) {
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+
+    @Override
+    public void completeWithError(Throwable error) {
+        complete();
+        fireClose();
+    }
+
+    @Override
+    public void onWritable(Runnable callback) {
+        this.writableCallback = callback;
+    }
+
+    @Override
+    public void onClose(Runnable callback) {
+        this.closeCallback = callback;
+    }
+
+    // WriteListener
+
+    @Override
+    public void onWritePossible() {
+        Runnable callback = writableCallback;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        completeWithError(error);
+    }
+
+    // AsyncListener
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        completed.set(true);
+        fireClose();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        complete();
+        fireClose();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        completeWithError(event.getThrowable());
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    private void fireClose() {
+        Runnable callback = closeCallback;
+        if (callback != null && closed.compareAndSet(false, true)) {
+            callback.run();
+        }
+    }
+}
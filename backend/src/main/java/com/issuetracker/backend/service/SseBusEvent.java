@@ -0,0 +1,126 @@
+package com.issuetracker.backend.service;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.issuetracker.backend.dto.IssueDTO;
+import com.issuetracker.backend.dto.ProjectDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An event carried by the {@link EventBus} to the SSE subscribers of every node:
+ * an issue or project event to send, a change to who may receive a project's events, a
+ * change to the topics of a stream open on some node, or a notice that events were lost
+ * and clients have to reload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SseBusEvent {
+
+    public enum Kind {
+        ISSUE,
+        PROJECT,
+        ACCESS_GRANTED,
+        ACCESS_REVOKED,
+        PROJECT_REMOVED,
+        STREAM_TOPICS,
+        RESYNC
+    }
+
+    private Kind kind;
+
+    // SSE event name, for ISSUE and PROJECT events
+    private String eventType;
+
+    private IssueDTO issue;
+
+    private ProjectDTO project;
+
+    // Recipients of a PROJECT event, or the user gaining or losing access
+    private List<UUID> userIds;
+
+    private UUID projectId;
+
+    // JSON Merge Patch from the issue at baseVersion to this event's issue, null if only a snapshot can be sent
+    private ObjectNode patch;
+
+    private Long baseVersion;
+
+    // Stream whose topics change and the topics added and removed, for STREAM_TOPICS events
+    private UUID streamId;
+
+    private List<SseTopic> addedTopics;
+
+    private List<SseTopic> removedTopics;
+
+    public static SseBusEvent issue(IssueDTO issue, String eventType) {
+        return new SseBusEvent(Kind.ISSUE, eventType, issue, null, null, issue.getProjectId(), null,
+            null, null, null, null);
+    }
+
+    public static SseBusEvent issueChange(IssueDTO issue, String eventType, ObjectNode patch, long baseVersion) {
+        return new SseBusEvent(Kind.ISSUE, eventType, issue, null, null, issue.getProjectId(), patch,
+            baseVersion, null, null, null);
+    }
+
+    public static SseBusEvent project(ProjectDTO project, String eventType, List<UUID> userIds) {
+        return new SseBusEvent(Kind.PROJECT, eventType, null, project, userIds, project.getId(), null,
+            null, null, null, null);
+    }
+
+    public static SseBusEvent accessGranted(UUID userId, UUID projectId) {
+        return new SseBusEvent(Kind.ACCESS_GRANTED, null, null, null, List.of(userId), projectId, null,
+            null, null, null, null);
+    }
+
+    public static SseBusEvent accessRevoked(UUID userId, UUID projectId) {
+        return new SseBusEvent(Kind.ACCESS_REVOKED, null, null, null, List.of(userId), projectId, null,
+            null, null, null, null);
+    }
+
+    public static SseBusEvent projectRemoved(UUID projectId) {
+        return new SseBusEvent(Kind.PROJECT_REMOVED, null, null, null, null, projectId, null, null, null, null, null);
+    }
+
+    /**
+     * Topic changes for a stream held by some node, applied only if the stream was opened by the given user
+     */
+    public static SseBusEvent streamTopics(UUID streamId, UUID userId, List<SseTopic> added, List<SseTopic> removed) {
+        return new SseBusEvent(Kind.STREAM_TOPICS, null, null, null, List.of(userId), null, null, null,
+            streamId, added, removed);
+    }
+
+    public static SseBusEvent resync() {
+        return new SseBusEvent(Kind.RESYNC, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * The newer of two events superseding each other, carrying the patch of both changes when
+     * both have one, so clients holding the older base version can still apply it
+     */
+    public static SseBusEvent supersede(SseBusEvent older, SseBusEvent newer) {
+        if (older.getPatch() == null || newer.getPatch() == null) {
+            return newer;
+        }
+        ObjectNode patch = older.getPatch().deepCopy();
+        patch.setAll(newer.getPatch());
+        return new SseBusEvent(newer.getKind(), newer.getEventType(), newer.getIssue(), newer.getProject(),
+            newer.getUserIds(), newer.getProjectId(), patch, older.getBaseVersion(), null, null, null);
+    }
+
+    /**
+     * Events with the same key supersede each other, only the latest needs to be delivered
+     */
+    public String dedupKey() {
+        if (kind == Kind.STREAM_TOPICS) {
+            // Each change applies to the topics left by the previous one, none can be skipped
+            return kind + ":" + UUID.randomUUID();
+        }
+        UUID entityId = issue != null ? issue.getId() : projectId;
+        return kind + ":" + eventType + ":" + entityId + ":" + userIds;
+    }
+}
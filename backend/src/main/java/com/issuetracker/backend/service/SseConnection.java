@@ -0,0 +1,33 @@
+package com.issuetracker.backend.service;
+
+import java.io.IOException;
+
+/**
+ * The transport behind an {@link SseSubscriber}: writes encoded frames to one client.
+ *
+ * Implementations may block on write ({@link EmitterSseConnection}) or refuse writes until
+ * the socket can take more data ({@link ServletSseConnection}), calling back once it can.
+ */
+public interface SseConnection {
+
+    /**
+     * Whether a frame can be written now without blocking
+     */
+    boolean isReady();
+
+    void write(SseFrame frame) throws IOException;
+
+    void complete();
+
+    void completeWithError(Throwable error);
+
+    /**
+     * Register the callback run when the connection becomes writable again after isReady returned false
+     */
+    void onWritable(Runnable callback);
+
+    /**
+     * Register the callback run once when the connection completes, times out or fails
+     */
+    void onClose(Runnable callback);
+}
@@ -0,0 +1,141 @@
+package com.issuetracker.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs SSE broadcasts off the request thread, only once the surrounding transaction commits.
+ *
+ * Broadcasts are queued in a bounded queue drained by a single dedicated platform thread (the
+ * backend targets Java 17, so virtual threads are not available), which keeps events in commit
+ * order. Writers never wait for subscribers: when the queue is full the broadcast is dropped
+ * and counted instead of blocking the request. Clients cannot notice a dropped event by
+ * themselves, so the drop handler runs before the next broadcast to tell them to reload.
+ * Access changes (granted, revoked, project removed) must never be lost, so they are not
+ * queued at all: they run on the committing thread through {@link #runAfterCommit}.
+ */
+@Service
+@Slf4j
+public class SseDispatcher {
+
+    @Value("${app.sse.dispatch-queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    private Counter droppedCounter;
+
+    // Set when a broadcast was dropped, cleared by the dispatcher thread once it ran the drop handler
+    private final AtomicBoolean dropped = new AtomicBoolean();
+
+    private volatile Runnable dropHandler = () -> { };
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "sse-dispatcher");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, pool) -> {
+                droppedCounter.increment();
+                dropped.set(true);
+                log.warn("SSE dispatch queue is full ({} pending), dropping broadcast", pool.getQueue().size());
+            });
+
+        droppedCounter = Counter.builder("sse.dispatch.dropped")
+            .description("SSE broadcasts dropped because the dispatch queue was full")
+            .register(meterRegistry);
+        Gauge.builder("sse.dispatch.pending", executor, pool -> pool.getQueue().size())
+            .description("SSE broadcasts waiting to be dispatched")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run the given handler on the dispatcher thread after broadcasts were dropped, before the
+     * next one. The queue being full when a broadcast is dropped, there always is a next one.
+     */
+    public void onDropped(Runnable handler) {
+        dropHandler = handler;
+    }
+
+    /**
+     * Dispatch a broadcast once the current transaction commits, or right away if there is none.
+     * Nothing is sent if the transaction rolls back.
+     */
+    public void dispatchAfterCommit(Runnable broadcast) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(broadcast);
+                }
+            });
+        } else {
+            dispatch(broadcast);
+        }
+    }
+
+    /**
+     * Run an action on the calling thread once the current transaction commits, or right away if
+     * there is none, bypassing the queue. For changes that must not be dropped when it is full.
+     */
+    public void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    run(action);
+                }
+            });
+        } else {
+            run(action);
+        }
+    }
+
+    private void run(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            // The transaction has committed, failing the request would not undo it
+            log.error("SSE after-commit action failed", e);
+        }
+    }
+
+    private void dispatch(Runnable broadcast) {
+        executor.execute(() -> {
+            try {
+                if (dropped.getAndSet(false)) {
+                    dropHandler.run();
+                }
+                broadcast.run();
+            } catch (RuntimeException e) {
+                log.error("SSE broadcast failed", e);
+            }
+        });
+    }
+}
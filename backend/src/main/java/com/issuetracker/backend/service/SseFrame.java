@@ -0,0 +1,100 @@
+package com.issuetracker.backend.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * A fully encoded, immutable Server-Sent Events frame.
+ *
+ * A broadcast is serialized once into a frame and the same bytes are written to every
+ * subscriber, bypassing the per-emitter message conversion of SseEmitter.event().
+ */
+public final class SseFrame {
+
+    private final String eventName;
+
+    private final Object key;
+
+    private final byte[] bytes;
+
+    private SseFrame(String eventName, Object key, byte[] bytes) {
+        this.eventName = eventName;
+        this.key = key;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Encode an event with the given name and (already serialized) data
+     */
+    public static SseFrame of(String eventName, String data) {
+        return of(null, eventName, data, null);
+    }
+
+    /**
+     * Encode an event about a given entity. Buffered frames with the same key
+     * may be coalesced, keeping only the latest.
+     *
+     * @param id event ID reported back by clients as Last-Event-ID, or null for none
+     */
+    public static SseFrame of(String id, String eventName, String data, Object key) {
+        StringBuilder frame = new StringBuilder();
+        if (id != null) {
+            frame.append("id:").append(id).append('\n');
+        }
+        frame.append("event:").append(eventName).append('\n');
+        for (String line : data.split("\r\n|\r|\n", -1)) {
+            frame.append("data:").append(line).append('\n');
+        }
+        frame.append('\n');
+        return new SseFrame(eventName, key, frame.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encode a comment line, ignored by clients. Used as a heartbeat on quiet connections.
+     */
+    public static SseFrame comment(String text) {
+        return new SseFrame(null, null, (":" + text + "\n\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Event name, null for comments
+     */
+    public String getEventName() {
+        return eventName;
+    }
+
+    /**
+     * Coalescing key (issue or project ID), null if the frame must never be coalesced
+     */
+    public Object getKey() {
+        return key;
+    }
+
+    /**
+     * Encoded size in bytes
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * Write the frame to an emitter. The byte array is passed through unchanged by
+     * ByteArrayHttpMessageConverter, so no copy or conversion happens per subscriber.
+     */
+    public void writeTo(SseEmitter emitter) throws IOException {
+        emitter.send(Set.of(new ResponseBodyEmitter.DataWithMediaType(bytes, MediaType.TEXT_EVENT_STREAM)));
+    }
+
+    /**
+     * Write the frame to a raw response stream
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,16 @@
+package com.issuetracker.backend.service;
+
+/**
+ * What to do when a subscriber's outbound buffer is full
+ */
+public enum SseOverflowPolicy {
+
+    // Discard the oldest buffered event to make room; the client is told to reload once the buffer drains
+    DROP_OLDEST,
+
+    // Replace a buffered event for the same issue (or project) with the newer one, else drop the oldest
+    COALESCE,
+
+    // Close the connection; the client reconnects and reloads
+    DISCONNECT
+}
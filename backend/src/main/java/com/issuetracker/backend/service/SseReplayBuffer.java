@@ -0,0 +1,74 @@
+package com.issuetracker.backend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Most recent events of one project, kept so reconnecting clients can catch up.
+ *
+ * Bounded both by event count and by encoded size; the oldest events are evicted first.
+ * Events are identified by their position in the service-wide event sequence.
+ */
+public class SseReplayBuffer {
+
+    private final int maxEvents;
+
+    private final long maxBytes;
+
+    // Guarded by this
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private long bytes;
+    private long evictedUpTo;
+
+    public SseReplayBuffer(int maxEvents, long maxBytes) {
+        this.maxEvents = maxEvents;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param delta frame for subscribers receiving deltas, null if they receive the same frame
+     */
+    public synchronized void append(long sequence, SseFrame frame, SseFrame delta) {
+        Entry entry = new Entry(sequence, frame, delta);
+        entries.addLast(entry);
+        bytes += entry.size();
+        while (entries.size() > maxEvents || (bytes > maxBytes && entries.size() > 1)) {
+            Entry evicted = entries.pollFirst();
+            bytes -= evicted.size();
+            evictedUpTo = evicted.sequence();
+        }
+    }
+
+    /**
+     * Events after the given sequence number, oldest first, or null if some of them
+     * have already been evicted and the client has to reload instead
+     */
+    public synchronized List<Entry> entriesAfter(long sequence) {
+        if (evictedUpTo > sequence) {
+            return null;
+        }
+        List<Entry> missed = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.sequence() > sequence) {
+                missed.add(entry);
+            }
+        }
+        return missed;
+    }
+
+    public record Entry(long sequence, SseFrame frame, SseFrame delta) {
+
+        /**
+         * The frame to send to a subscriber, depending on whether it receives deltas
+         */
+        public SseFrame frameFor(SseSubscriber subscriber) {
+            return subscriber.isDeltas() && delta != null ? delta : frame;
+        }
+
+        int size() {
+            return frame.size() + (delta != null ? delta.size() : 0);
+        }
+    }
+}
@@ -1,209 +1,1053 @@
 package com.issuetracker.backend.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.issuetracker.backend.dto.IssueDTO;
 import com.issuetracker.backend.dto.ProjectDTO;
+import com.issuetracker.backend.exception.BadRequestException;
+import com.issuetracker.backend.exception.ResourceNotFoundException;
+import com.issuetracker.backend.repository.ProjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Slf4j
 public class SseService {
 
-    // Store emitters by project ID (for issue updates within a project)
-    private final Map<UUID, CopyOnWriteArrayList<SseEmitter>> projectEmitters = new ConcurrentHashMap<>();
+    // Connections are spread over this many slots, one slot being checked per tick
+    private static final int HEARTBEAT_WHEEL_SLOTS = 16;
 
-    // Store emitters by user ID (for user-specific events like membership changes)
-    private final Map<UUID, CopyOnWriteArrayList<SseEmitter>> userEmitters = new ConcurrentHashMap<>();
+    private static final SseFrame HEARTBEAT = SseFrame.comment("heartbeat");
 
-    // Store emitters for all issues (not filtered by project)
-    private final CopyOnWriteArrayList<SseEmitter> globalEmitters = new CopyOnWriteArrayList<>();
+    // Users whose access is loaded per query when open connections are revalidated
+    private static final int REVALIDATE_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SseDispatcher sseDispatcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private EventBus eventBus;
+
+    // Outbound frames buffered per connection before the overflow policy applies
+    @Value("${app.sse.subscriber-buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${app.sse.overflow-policy:COALESCE}")
+    private SseOverflowPolicy overflowPolicy;
+
+    // Threads writing buffered frames to connections, started on demand and stopped once idle.
+    // A client that stops reading holds one of them until its write fails
+    @Value("${app.sse.writer-threads:64}")
+    private int writerThreads;
+
+    // A subscriber whose write has not returned after this long is dropped, 0 to disable
+    @Value("${app.sse.write-timeout-ms:10000}")
+    private long writeTimeoutMillis;
+
+    // A subscriber whose oldest buffered frame is older than this is reported as lagging
+    @Value("${app.sse.lag-threshold-ms:2000}")
+    private long lagThresholdMillis;
+
+    // Issue events for the same issue within this window are collapsed into one, 0 to disable
+    @Value("${app.sse.coalesce-window-ms:0}")
+    private long coalesceWindowMillis;
+
+    // Recent issue events kept per project for Last-Event-ID resume
+    @Value("${app.sse.replay-buffer-size:500}")
+    private int replayBufferSize;
+
+    @Value("${app.sse.replay-buffer-bytes:1048576}")
+    private long replayBufferBytes;
+
+    // Quiet connections get a comment frame this often, so broken ones fail without waiting for a broadcast
+    @Value("${app.sse.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMillis;
+
+    // Connections without any event for this long are closed, 0 to disable
+    @Value("${app.sse.max-idle-ms:1800000}")
+    private long maxIdleMillis;
+
+    // Connections are closed after this long regardless of activity, 0 to disable
+    @Value("${app.sse.max-lifetime-ms:14400000}")
+    private long maxLifetimeMillis;
+
+    // Topics a multiplexed stream may be subscribed to at once
+    @Value("${app.sse.stream.max-topics:100}")
+    private int maxStreamTopics;
+
+    private ExecutorService writer;
+
+    private ScheduledExecutorService heartbeatScheduler;
+
+    // Timer wheel of open connections, each mapped to the callback that closes and unregisters it
+    private final List<Map<SseSubscriber, Runnable>> heartbeatWheel = new ArrayList<>();
+
+    // Only touched by the heartbeat thread
+    private long heartbeatTick;
+
+    private Counter heartbeatCounter;
+
+    private Counter writeTimeoutCounter;
+
+    private ScheduledExecutorService coalesceScheduler;
+
+    private IssueEventCoalescer coalescer;
+
+    private IssuePatchBuilder patchBuilder;
+
+    private final Map<SseOverflowPolicy, Counter> overflowCounters = new EnumMap<>(SseOverflowPolicy.class);
+
+    // Serializes ID assignment, replay buffering and the choice of recipients with subscriber registration
+    // and the subscription index, so a (re)connecting client never misses or duplicates an event.
+    // Frames are queued on the recipients after releasing it
+    private final Object deliveryLock = new Object();
+
+    // Held from ID assignment until an issue event is queued on all its recipients, so concurrent events
+    // reach each subscriber in ID order. Never acquired with deliveryLock held, nor when connecting
+    private final Object fanOutLock = new Object();
+
+    // Event IDs are "<epoch>-<sequence>"; the epoch changes on restart and when events were lost,
+    // so IDs from before it force a reload. Guarded by deliveryLock
+    private long streamEpoch = System.currentTimeMillis();
+
+    // Guarded by deliveryLock
+    private long sequence;
+
+    // Subscription index for the global stream, covering only users with an open global stream.
+    // Guarded by deliveryLock
+    private final Map<UUID, Set<UUID>> projectsByUser = new HashMap<>();
+    private final Map<UUID, Set<UUID>> globalUsersByProject = new HashMap<>();
+
+    // Incremented on every membership change, guarded by deliveryLock
+    private long membershipVersion;
+
+    private final Map<UUID, SseReplayBuffer> replayBuffers = new ConcurrentHashMap<>();
+
+    // Subscribers are kept in concurrent sets, so connecting and disconnecting cost the same however many
+    // others follow the project or user
+
+    // Store subscribers by project ID (for issue updates within a project)
+    private final Map<UUID, Set<SseSubscriber>> projectEmitters = new ConcurrentHashMap<>();
+
+    // Store subscribers by user ID (for user-specific events like membership changes)
+    private final Map<UUID, Set<SseSubscriber>> userEmitters = new ConcurrentHashMap<>();
+
+    // Store subscribers for all issues of the projects a user can access, by user ID
+    private final Map<UUID, Set<SseSubscriber>> globalEmitters = new ConcurrentHashMap<>();
+
+    // Multiplexed streams by stream ID. Their user and project topics are entries in
+    // userEmitters and projectEmitters, so those events need no separate routing
+    private final Map<UUID, SseStream> streams = new ConcurrentHashMap<>();
+
+    // Streams subscribed to single issues, by issue ID. Guarded by deliveryLock
+    private final Map<UUID, List<SseStream>> issueStreams = new HashMap<>();
+
+    @PostConstruct
+    void start() {
+        patchBuilder = new IssuePatchBuilder(objectMapper);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor writerPool = new ThreadPoolExecutor(writerThreads, writerThreads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "sse-writer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        writerPool.allowCoreThreadTimeOut(true);
+        writer = writerPool;
+
+        for (int slot = 0; slot < HEARTBEAT_WHEEL_SLOTS; slot++) {
+            heartbeatWheel.add(new ConcurrentHashMap<>());
+        }
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = Math.max(1, heartbeatIntervalMillis / HEARTBEAT_WHEEL_SLOTS);
+        heartbeatScheduler.scheduleAtFixedRate(this::checkNextHeartbeatSlot, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+
+        if (coalesceWindowMillis > 0) {
+            coalesceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sse-coalescer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            Counter coalescedCounter = Counter.builder("sse.events.coalesced")
+                .description("Issue events merged into a later event for the same issue")
+                .register(meterRegistry);
+            coalescer = new IssueEventCoalescer(coalesceWindowMillis, coalesceScheduler,
+                this::sendIssueUpdate, coalescedCounter::increment);
+        }
+
+        for (SseOverflowPolicy policy : SseOverflowPolicy.values()) {
+            overflowCounters.put(policy, Counter.builder("sse.subscriber.overflow")
+                .description("Frames dropped, coalesced or connections closed because a subscriber buffer was full")
+                .tag("policy", policy.name())
+                .register(meterRegistry));
+        }
+        eventBus.subscribe(this::onBusEvent);
+        sseDispatcher.onDropped(() -> eventBus.publish(SseBusEvent.resync()));
+
+        Gauge.builder("sse.subscriber.lagging", this, service -> service.getLaggingSubscribers(null).size())
+            .description("Subscribers whose oldest buffered event exceeds the lag threshold")
+            .register(meterRegistry);
+        Gauge.builder("sse.subscriber.buffered", this, SseService::getBufferedFrameCount)
+            .description("Frames buffered across all subscribers")
+            .register(meterRegistry);
+        Gauge.builder("sse.connections.active", this, SseService::getActiveConnectionCount)
+            .description("Open SSE connections")
+            .register(meterRegistry);
+        heartbeatCounter = Counter.builder("sse.heartbeat.sent")
+            .description("Heartbeat comments queued on quiet connections")
+            .register(meterRegistry);
+        writeTimeoutCounter = Counter.builder("sse.subscriber.write-timeouts")
+            .description("Connections dropped because a write to them did not return in time")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        heartbeatScheduler.shutdownNow();
+        writer.shutdownNow();
+        if (coalesceScheduler != null) {
+            coalesceScheduler.shutdownNow();
+        }
+    }
 
     /**
-     * Create a new SSE emitter for a specific project
+     * Create a new SSE emitter for a specific project, or for all projects the user can access
+     *
+     * @param lastEventId ID of the last event the client received before reconnecting, or null.
+     *                    Missed events are replayed, or a "reload" event is sent when they are no longer buffered.
+     * @param deltas      send issue changes as JSON Merge Patches against the previous version instead of snapshots
      */
-    public SseEmitter createEmitter(UUID projectId) {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE); // No timeout
-        
-        if (projectId != null) {
-            projectEmitters.computeIfAbsent(projectId, k -> new CopyOnWriteArrayList<>()).add(emitter);
-            
-            emitter.onCompletion(() -> removeProjectEmitter(projectId, emitter));
-            emitter.onTimeout(() -> removeProjectEmitter(projectId, emitter));
-            emitter.onError(e -> removeProjectEmitter(projectId, emitter));
-        } else {
-            globalEmitters.add(emitter);
-            
-            emitter.onCompletion(() -> globalEmitters.remove(emitter));
-            emitter.onTimeout(() -> globalEmitters.remove(emitter));
-            emitter.onError(e -> globalEmitters.remove(emitter));
-        }
+    public SseEmitter createEmitter(UUID projectId, UUID userId, String lastEventId, boolean deltas) {
+        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE); // Idle and lifetime limits are enforced by the heartbeat wheel
+        subscribe(projectId, userId, lastEventId, deltas, new EmitterSseConnection(emitter));
+        return emitter;
+    }
+
+    /**
+     * Subscribe a connection to the issue events of a specific project, or of all projects the user can access.
+     * Same topics, replay and delivery as {@link #createEmitter}, over any transport.
+     */
+    public void subscribe(UUID projectId, UUID userId, String lastEventId, boolean deltas, SseConnection connection) {
+        SseSubscriber subscriber = newSubscriber(projectId != null ? "project:" + projectId : "global",
+            userId, deltas, connection);
 
         // Send initial connection message
-        try {
-            emitter.send(SseEmitter.event()
-                .name("connected")
-                .data("Connected to issue updates" + (projectId != null ? " for project " + projectId : "")));
-        } catch (IOException e) {
-            removeProjectEmitter(projectId, emitter);
+        subscriber.offer(SseFrame.of("connected",
+            "Connected to issue updates" + (projectId != null ? " for project " + projectId : "")));
+
+        if (projectId != null) {
+            synchronized (deliveryLock) {
+                replayMissedEvents(subscriber, Set.of(projectId), lastEventId);
+                addSubscriber(projectEmitters, projectId, subscriber);
+                onClose(subscriber, () -> removeSubscriber(projectEmitters, projectId, subscriber));
+            }
+            return;
         }
 
-        return emitter;
+        // The user's projects are loaded outside the lock; retried if membership changed meanwhile
+        while (true) {
+            long version;
+            synchronized (deliveryLock) {
+                version = membershipVersion;
+            }
+            Set<UUID> projectIds = projectRepository.findIdsByUserIdAsMemberOrOwner(userId);
+            synchronized (deliveryLock) {
+                if (version != membershipVersion) {
+                    continue;
+                }
+                replayMissedEvents(subscriber, projectIds, lastEventId);
+                addGlobalSubscriber(userId, projectIds, subscriber);
+                onClose(subscriber, () -> removeGlobalSubscriber(userId, subscriber));
+                return;
+            }
+        }
     }
 
     /**
      * Create a new SSE emitter for a specific user (for membership events)
      */
     public SseEmitter createUserEmitter(UUID userId) {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE); // No timeout
-        
-        userEmitters.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).add(emitter);
-        
-        emitter.onCompletion(() -> removeUserEmitter(userId, emitter));
-        emitter.onTimeout(() -> removeUserEmitter(userId, emitter));
-        emitter.onError(e -> removeUserEmitter(userId, emitter));
+        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE); // Idle and lifetime limits are enforced by the heartbeat wheel
+        SseSubscriber subscriber = newSubscriber("user:" + userId, userId, false, new EmitterSseConnection(emitter));
+
+        addSubscriber(userEmitters, userId, subscriber);
+        onClose(subscriber, () -> removeSubscriber(userEmitters, userId, subscriber));
 
         // Send initial connection message
-        try {
-            emitter.send(SseEmitter.event()
-                .name("connected")
-                .data("Connected to user events for user " + userId));
-        } catch (IOException e) {
-            removeUserEmitter(userId, emitter);
-        }
+        subscriber.offer(SseFrame.of("connected", "Connected to user events for user " + userId));
 
         return emitter;
     }
 
     /**
-     * Broadcast issue update to all subscribers of a project
+     * Throw unless a stream may have these topics. Called before the connection is set up, so the
+     * request can still be answered with an error status.
      */
-    public void broadcastIssueUpdate(IssueDTO issue, String eventType) {
-        UUID projectId = issue.getProjectId();
-        
-        // Send to project-specific subscribers
-        CopyOnWriteArrayList<SseEmitter> emitters = projectEmitters.get(projectId);
-        if (emitters != null) {
-            sendToEmitters(emitters, issue, eventType);
+    public void checkStreamTopics(Collection<SseTopic> topics) {
+        if (new HashSet<>(topics).size() > maxStreamTopics) {
+            throw new BadRequestException("A stream can have at most " + maxStreamTopics + " topics");
         }
+    }
+
+    /**
+     * Open a multiplexed stream carrying the events of several topics over one connection.
+     * The caller must have checked the user's access to the topics and {@link #checkStreamTopics}.
+     *
+     * The "connected" event carries the stream ID used to change topics later. On reconnect, missed
+     * events of the initial project and issue topics are replayed as for {@link #createEmitter}.
+     */
+    public SseStream openStream(UUID userId, List<SseTopic> topics, String lastEventId, boolean deltas,
+                                SseConnection connection) {
+        Set<SseTopic> initialTopics = new LinkedHashSet<>(topics);
+        UUID streamId = UUID.randomUUID();
+        SseStream stream = new SseStream(streamId, userId, newSubscriber("stream:" + streamId, userId, deltas, connection));
+
+        Map<String, Object> connected = new HashMap<>();
+        connected.put("streamId", streamId);
+        connected.put("topics", initialTopics.stream().map(SseTopic::toString).toList());
+        stream.getSubscriber().offer(SseFrame.of("connected", serialize("connected", connected)));
+
+        synchronized (deliveryLock) {
+            Set<UUID> projectIds = new HashSet<>();
+            Map<UUID, Set<UUID>> issueIdsByProject = new HashMap<>();
+            for (SseTopic topic : initialTopics) {
+                if (topic.kind() == SseTopic.Kind.PROJECT) {
+                    projectIds.add(topic.id());
+                } else if (topic.kind() == SseTopic.Kind.ISSUE) {
+                    issueIdsByProject.computeIfAbsent(topic.projectId(), id -> new HashSet<>()).add(topic.id());
+                }
+            }
+            issueIdsByProject.keySet().removeAll(projectIds);
+            replayMissedEvents(stream.getSubscriber(), projectIds, issueIdsByProject, lastEventId);
 
-        // Send to global subscribers
-        sendToEmitters(globalEmitters, issue, eventType);
+            streams.put(streamId, stream);
+            initialTopics.forEach(topic -> addStreamTopic(stream, topic));
+            onClose(stream.getSubscriber(), () -> closeStream(stream));
+        }
+        return stream;
     }
 
     /**
-     * Send issue update to a list of emitters
+     * Add and remove topics of an open stream without reconnecting, returning its topics afterwards.
+     * The caller must have checked the user's access to the added topics.
+     *
+     * A stream is held by the node its connection reached. When it is not on this node and other
+     * nodes share the event bus, the change is sent to them and an empty result is returned; the
+     * node holding the stream applies it if the stream belongs to the user and keeps within the
+     * topic limit.
      */
-    private void sendToEmitters(CopyOnWriteArrayList<SseEmitter> emitters, IssueDTO issue, String eventType) {
-        emitters.removeIf(emitter -> {
+    public Optional<List<SseTopic>> updateStreamTopics(UUID streamId, UUID userId, List<SseTopic> added,
+                                                       List<SseTopic> removed) {
+        synchronized (deliveryLock) {
+            if (streams.containsKey(streamId)) {
+                return Optional.of(applyStreamTopics(streamId, userId, added, removed));
+            }
+        }
+        if (!eventBus.isDistributed()) {
+            throw new ResourceNotFoundException("Stream", "id", streamId);
+        }
+        checkStreamTopics(added);
+        eventBus.publish(SseBusEvent.streamTopics(streamId, userId, added, removed));
+        return Optional.empty();
+    }
+
+    // Topic changes sent by another node, for streams held by this one
+    private void onStreamTopics(SseBusEvent event) {
+        synchronized (deliveryLock) {
+            if (!streams.containsKey(event.getStreamId())) {
+                return;
+            }
             try {
-                emitter.send(SseEmitter.event()
-                    .name(eventType)
-                    .data(issue));
-                return false;
-            } catch (IOException e) {
-                return true; // Remove dead emitters
+                applyStreamTopics(event.getStreamId(), event.getUserIds().get(0), event.getAddedTopics(),
+                    event.getRemovedTopics());
+            } catch (BadRequestException | ResourceNotFoundException e) {
+                log.warn("Ignoring topic change for stream {}: {}", event.getStreamId(), e.getMessage());
             }
-        });
+        }
     }
 
     /**
-     * Broadcast project event to a specific user
+     * Change the topics of a stream held by this node. Called with deliveryLock held.
      */
-    public void broadcastProjectEventToUser(UUID userId, ProjectDTO project, String eventType) {
-        CopyOnWriteArrayList<SseEmitter> emitters = userEmitters.get(userId);
-        if (emitters != null) {
-            sendToEmitters(emitters, project, eventType);
+    private List<SseTopic> applyStreamTopics(UUID streamId, UUID userId, List<SseTopic> added, List<SseTopic> removed) {
+        // Looked up under the lock, so a stream closing meanwhile never gets topics back
+        SseStream stream = streams.get(streamId);
+        if (stream == null || !stream.getUserId().equals(userId)) {
+            throw new ResourceNotFoundException("Stream", "id", streamId);
         }
+        int count = stream.topicCount();
+        Set<SseTopic> removing = new HashSet<>();
+        for (SseTopic topic : removed) {
+            if (stream.contains(topic) && removing.add(topic)) {
+                count--;
+            }
+        }
+        for (SseTopic topic : new LinkedHashSet<>(added)) {
+            if (!stream.contains(topic) || removing.contains(topic)) {
+                count++;
+            }
+        }
+        if (count > maxStreamTopics) {
+            throw new BadRequestException("A stream can have at most " + maxStreamTopics + " topics");
+        }
+        removing.forEach(topic -> removeStreamTopic(stream, topic));
+        added.forEach(topic -> addStreamTopic(stream, topic));
+        return stream.topics();
+    }
+
+    /**
+     * Broadcast issue update to all subscribers of a project on every node, once the current transaction commits
+     */
+    public void broadcastIssueUpdate(IssueDTO issue, String eventType) {
+        publishAfterCommit(SseBusEvent.issue(issue, eventType));
+    }
+
+    /**
+     * Broadcast a change to an issue, once the current transaction commits. Subscribers receiving
+     * deltas get only the fields that differ from the previous version.
+     */
+    public void broadcastIssueUpdate(IssueDTO previous, IssueDTO issue, String eventType) {
+        publishAfterCommit(SseBusEvent.issueChange(issue, eventType, patchBuilder.mergePatch(previous, issue), previous.getVersion()));
+    }
+
+    /**
+     * Include a project in the user's global stream on every node, once the current transaction commits
+     */
+    public void grantProjectAccess(UUID userId, UUID projectId) {
+        publishAccessChangeAfterCommit(SseBusEvent.accessGranted(userId, projectId));
+    }
+
+    /**
+     * Stop sending a project's events to the user on every node, once the current transaction commits.
+     * The user's connections to that project's stream are closed.
+     */
+    public void revokeProjectAccess(UUID userId, UUID projectId) {
+        publishAccessChangeAfterCommit(SseBusEvent.accessRevoked(userId, projectId));
+    }
+
+    /**
+     * Forget a deleted project on every node, once the current transaction commits.
+     * Connections to its stream are closed and its replay buffer is dropped.
+     */
+    public void removeProject(UUID projectId) {
+        publishAccessChangeAfterCommit(SseBusEvent.projectRemoved(projectId));
     }
 
     /**
-     * Broadcast project event to all members of a project
+     * Broadcast project event to a specific user on every node, once the current transaction commits
+     */
+    public void broadcastProjectEventToUser(UUID userId, ProjectDTO project, String eventType) {
+        broadcastProjectEventToMembers(project, eventType, List.of(userId));
+    }
+
+    /**
+     * Broadcast project event to all members of a project on every node, once the current transaction commits
      */
     public void broadcastProjectEventToMembers(ProjectDTO project, String eventType, List<UUID> memberUserIds) {
-        for (UUID userId : memberUserIds) {
-            broadcastProjectEventToUser(userId, project, eventType);
+        publishAfterCommit(SseBusEvent.project(project, eventType, memberUserIds));
+    }
+
+    private void publishAfterCommit(SseBusEvent event) {
+        sseDispatcher.dispatchAfterCommit(() -> eventBus.publish(event));
+    }
+
+    // Not through the dispatcher's queue, which drops broadcasts when full: a lost revocation
+    // would keep sending the project's events to a user who no longer has access
+    private void publishAccessChangeAfterCommit(SseBusEvent event) {
+        sseDispatcher.runAfterCommit(() -> eventBus.publish(event));
+    }
+
+    /**
+     * Apply an event published by any node to this node's subscribers
+     */
+    private void onBusEvent(SseBusEvent event) {
+        switch (event.getKind()) {
+            case ISSUE -> {
+                if (coalescer != null) {
+                    coalescer.submit(event);
+                } else {
+                    sendIssueUpdate(event);
+                }
+            }
+            case PROJECT -> sendProjectEvent(event.getProject(), event.getEventType(), event.getUserIds());
+            case ACCESS_GRANTED -> applyAccessGranted(event.getUserIds().get(0), event.getProjectId());
+            case ACCESS_REVOKED -> applyAccessRevoked(event.getUserIds().get(0), event.getProjectId());
+            case PROJECT_REMOVED -> applyProjectRemoved(event.getProjectId());
+            case STREAM_TOPICS -> onStreamTopics(event);
+            case RESYNC -> resync();
         }
     }
 
     /**
-     * Send project update to a list of emitters
+     * Tell every client to reload after events were lost. The epoch changes and the replay buffers
+     * are dropped, so clients reconnecting with an earlier event ID are told to reload as well.
+     * Lost events may include access changes, so every connection's access is checked again.
      */
-    private void sendToEmitters(CopyOnWriteArrayList<SseEmitter> emitters, Object data, String eventType) {
-        emitters.removeIf(emitter -> {
-            try {
-                emitter.send(SseEmitter.event()
-                    .name(eventType)
-                    .data(data));
-                return false;
-            } catch (IOException e) {
-                return true; // Remove dead emitters
+    private void resync() {
+        synchronized (deliveryLock) {
+            streamEpoch = Math.max(System.currentTimeMillis(), streamEpoch + 1);
+            replayBuffers.clear();
+            SseFrame reload = SseFrame.of("reload", "Some events were lost");
+            allSubscribers().forEach(subscriber -> subscriber.offer(reload));
+        }
+        revalidateAccess();
+    }
+
+    /**
+     * Reload from the database the projects of every user with an open connection, then rebuild
+     * their global stream index, close their project connections and drop their stream topics
+     * for projects they can no longer access. Retried if membership changed while loading.
+     */
+    private void revalidateAccess() {
+        while (true) {
+            long version;
+            Set<UUID> userIds;
+            synchronized (deliveryLock) {
+                version = membershipVersion;
+                userIds = allSubscribers().map(SseSubscriber::getUserId).collect(Collectors.toSet());
             }
-        });
+            Map<UUID, Set<UUID>> access = loadAccessibleProjects(userIds);
+            synchronized (deliveryLock) {
+                if (version != membershipVersion) {
+                    continue;
+                }
+                // Users connecting meanwhile loaded their projects themselves and are left alone
+                for (UUID userId : userIds) {
+                    Set<UUID> projectIds = access.getOrDefault(userId, Set.of());
+                    if (projectsByUser.containsKey(userId)) {
+                        indexGlobalUser(userId, projectIds);
+                    }
+                }
+                projectEmitters.forEach((projectId, subscribers) -> subscribers.stream()
+                    .filter(subscriber -> !subscriber.getTopic().startsWith("stream:"))
+                    .filter(subscriber -> userIds.contains(subscriber.getUserId())
+                        && !access.getOrDefault(subscriber.getUserId(), Set.of()).contains(projectId))
+                    .forEach(SseSubscriber::expire));
+                for (SseStream stream : List.copyOf(streams.values())) {
+                    if (!userIds.contains(stream.getUserId())) {
+                        continue;
+                    }
+                    Set<UUID> projectIds = access.getOrDefault(stream.getUserId(), Set.of());
+                    stream.touchedProjectIds().stream()
+                        .filter(projectId -> !projectIds.contains(projectId))
+                        .forEach(projectId -> dropStreamProject(projectId, candidate -> candidate == stream));
+                }
+                return;
+            }
+        }
+    }
+
+    private Map<UUID, Set<UUID>> loadAccessibleProjects(Set<UUID> userIds) {
+        Map<UUID, Set<UUID>> access = new HashMap<>();
+        List<UUID> remaining = new ArrayList<>(userIds);
+        for (int from = 0; from < remaining.size(); from += REVALIDATE_BATCH_SIZE) {
+            List<UUID> batch = remaining.subList(from, Math.min(from + REVALIDATE_BATCH_SIZE, remaining.size()));
+            for (Object[] row : projectRepository.findAccessByUserIds(batch)) {
+                access.computeIfAbsent((UUID) row[0], id -> new HashSet<>()).add((UUID) row[1]);
+            }
+        }
+        return access;
+    }
+
+    private void applyAccessGranted(UUID userId, UUID projectId) {
+        synchronized (deliveryLock) {
+            membershipVersion++;
+            Set<UUID> projectIds = projectsByUser.get(userId);
+            if (projectIds != null && projectIds.add(projectId)) {
+                globalUsersByProject.computeIfAbsent(projectId, id -> new HashSet<>()).add(userId);
+            }
+        }
+    }
+
+    private void applyAccessRevoked(UUID userId, UUID projectId) {
+        synchronized (deliveryLock) {
+            membershipVersion++;
+            Set<UUID> projectIds = projectsByUser.get(userId);
+            if (projectIds != null && projectIds.remove(projectId)) {
+                removeGlobalUser(projectId, userId);
+            }
+            dropStreamProject(projectId, stream -> userId.equals(stream.getUserId()));
+            Set<SseSubscriber> subscribers = projectEmitters.get(projectId);
+            if (subscribers != null) {
+                subscribers.stream()
+                    .filter(subscriber -> userId.equals(subscriber.getUserId()))
+                    .forEach(SseSubscriber::expire);
+            }
+        }
+    }
+
+    private void applyProjectRemoved(UUID projectId) {
+        synchronized (deliveryLock) {
+            membershipVersion++;
+            Set<UUID> userIds = globalUsersByProject.remove(projectId);
+            if (userIds != null) {
+                userIds.forEach(userId -> projectsByUser.get(userId).remove(projectId));
+            }
+            replayBuffers.remove(projectId);
+            dropStreamProject(projectId, stream -> true);
+            Set<SseSubscriber> subscribers = projectEmitters.get(projectId);
+            if (subscribers != null) {
+                subscribers.forEach(SseSubscriber::expire);
+            }
+        }
+    }
+
+    private void sendIssueUpdate(SseBusEvent event) {
+        IssueDTO issue = event.getIssue();
+        String eventType = event.getEventType();
+        UUID projectId = issue.getProjectId();
+
+        // Serialized once, shared by every subscriber and the replay buffer. A creation is never
+        // coalesced away, otherwise a lagging client could receive updates for an issue it never saw created
+        String data = serialize(eventType, issue);
+        String deltaData = event.getPatch() != null ? serialize(eventType, patchBuilder.delta(event)) : null;
+        Object key = eventType.equals("issue.created") ? null : issue.getId();
+
+        synchronized (fanOutLock) {
+            SseFrame frame;
+            SseFrame delta;
+            List<SseSubscriber> recipients = new ArrayList<>();
+            synchronized (deliveryLock) {
+                long eventSequence = ++sequence;
+                String eventId = streamEpoch + "-" + eventSequence;
+                frame = SseFrame.of(eventId, eventType, data, key);
+                delta = deltaData != null ? SseFrame.of(eventId, eventType, deltaData, key) : null;
+                replayBuffers.computeIfAbsent(projectId, id -> new SseReplayBuffer(replayBufferSize, replayBufferBytes))
+                    .append(eventSequence, frame, delta);
+
+                // Project-specific subscribers
+                Set<SseSubscriber> subscribers = projectEmitters.get(projectId);
+                if (subscribers != null) {
+                    recipients.addAll(subscribers);
+                }
+
+                // Global streams of users with access to the project
+                Set<UUID> userIds = globalUsersByProject.get(projectId);
+                if (userIds != null) {
+                    for (UUID userId : userIds) {
+                        Set<SseSubscriber> userSubscribers = globalEmitters.get(userId);
+                        if (userSubscribers != null) {
+                            recipients.addAll(userSubscribers);
+                        }
+                    }
+                }
+
+                // Streams following the issue alone, unless they get it through its project topic
+                List<SseStream> followers = issueStreams.get(issue.getId());
+                if (followers != null) {
+                    for (SseStream stream : followers) {
+                        if (!stream.hasProject(projectId)) {
+                            recipients.add(stream.getSubscriber());
+                        }
+                    }
+                    if (eventType.equals("issue.deleted")) {
+                        SseTopic topic = SseTopic.issue(issue.getId(), projectId);
+                        List.copyOf(followers).forEach(stream -> removeStreamTopic(stream, topic));
+                    }
+                }
+            }
+
+            // Closed subscribers refuse the frame; they are unregistered by their close callback or the heartbeat wheel
+            for (SseSubscriber subscriber : recipients) {
+                subscriber.offer(subscriber.isDeltas() && delta != null ? delta : frame);
+            }
+        }
     }
 
     /**
-     * Remove an emitter from a project's subscriber list
+     * Subscribe a stream to a topic it does not have yet. Called with deliveryLock held.
      */
-    private void removeProjectEmitter(UUID projectId, SseEmitter emitter) {
-        if (projectId != null) {
-            CopyOnWriteArrayList<SseEmitter> emitters = projectEmitters.get(projectId);
-            if (emitters != null) {
-                emitters.remove(emitter);
-                if (emitters.isEmpty()) {
-                    projectEmitters.remove(projectId);
+    private void addStreamTopic(SseStream stream, SseTopic topic) {
+        if (!stream.add(topic)) {
+            return;
+        }
+        switch (topic.kind()) {
+            case USER -> addSubscriber(userEmitters, stream.getUserId(), stream.getSubscriber());
+            case PROJECT -> addSubscriber(projectEmitters, topic.id(), stream.getSubscriber());
+            case ISSUE -> issueStreams.computeIfAbsent(topic.id(), k -> new ArrayList<>()).add(stream);
+        }
+    }
+
+    /**
+     * Unsubscribe a stream from a topic, if it has it. Called with deliveryLock held.
+     */
+    private void removeStreamTopic(SseStream stream, SseTopic topic) {
+        if (!stream.remove(topic)) {
+            return;
+        }
+        switch (topic.kind()) {
+            case USER -> removeSubscriber(userEmitters, stream.getUserId(), stream.getSubscriber());
+            case PROJECT -> removeSubscriber(projectEmitters, topic.id(), stream.getSubscriber());
+            case ISSUE -> issueStreams.computeIfPresent(topic.id(), (key, followers) -> {
+                followers.remove(stream);
+                return followers.isEmpty() ? null : followers;
+            });
+        }
+    }
+
+    /**
+     * Remove a project's topics from the matching streams, sending "topic.removed" for each.
+     * The streams themselves stay open. Called with deliveryLock held.
+     */
+    private void dropStreamProject(UUID projectId, Predicate<SseStream> filter) {
+        for (SseStream stream : streams.values()) {
+            if (!filter.test(stream) || !stream.touchesProject(projectId)) {
+                continue;
+            }
+            for (SseTopic topic : stream.topics()) {
+                if (projectId.equals(topic.projectId())) {
+                    removeStreamTopic(stream, topic);
+                    stream.getSubscriber().offer(SseFrame.of("topic.removed", topic.toString()));
                 }
             }
         }
     }
 
+    private void closeStream(SseStream stream) {
+        synchronized (deliveryLock) {
+            streams.remove(stream.getId());
+            stream.topics().forEach(topic -> removeStreamTopic(stream, topic));
+        }
+    }
+
+    /**
+     * Register a global stream subscriber and index the user's projects. Called with deliveryLock held.
+     *
+     * @param projectIds the user's projects, loaded after the last membership change
+     */
+    private void addGlobalSubscriber(UUID userId, Set<UUID> projectIds, SseSubscriber subscriber) {
+        addSubscriber(globalEmitters, userId, subscriber);
+        // Replaces the user's entry even if another global stream is open, correcting it if it went stale
+        indexGlobalUser(userId, projectIds);
+    }
+
+    /**
+     * Set the projects whose events reach the user's global streams. Called with deliveryLock held.
+     */
+    private void indexGlobalUser(UUID userId, Set<UUID> projectIds) {
+        Set<UUID> previous = projectsByUser.put(userId, new HashSet<>(projectIds));
+        if (previous != null) {
+            previous.stream()
+                .filter(projectId -> !projectIds.contains(projectId))
+                .forEach(projectId -> removeGlobalUser(projectId, userId));
+        }
+        projectIds.forEach(projectId ->
+            globalUsersByProject.computeIfAbsent(projectId, id -> new HashSet<>()).add(userId));
+    }
+
     /**
-     * Remove an emitter from a user's subscriber list
+     * Unregister a global stream subscriber, dropping the user from the index after their last one
      */
-    private void removeUserEmitter(UUID userId, SseEmitter emitter) {
-        if (userId != null) {
-            CopyOnWriteArrayList<SseEmitter> emitters = userEmitters.get(userId);
-            if (emitters != null) {
-                emitters.remove(emitter);
-                if (emitters.isEmpty()) {
-                    userEmitters.remove(userId);
+    private void removeGlobalSubscriber(UUID userId, SseSubscriber subscriber) {
+        synchronized (deliveryLock) {
+            removeSubscriber(globalEmitters, userId, subscriber);
+            if (!globalEmitters.containsKey(userId)) {
+                Set<UUID> projectIds = projectsByUser.remove(userId);
+                if (projectIds != null) {
+                    projectIds.forEach(projectId -> removeGlobalUser(projectId, userId));
                 }
             }
         }
     }
 
+    private void removeGlobalUser(UUID projectId, UUID userId) {
+        Set<UUID> userIds = globalUsersByProject.get(projectId);
+        if (userIds != null) {
+            userIds.remove(userId);
+            if (userIds.isEmpty()) {
+                globalUsersByProject.remove(projectId);
+            }
+        }
+    }
+
     /**
-     * Get the number of active connections
+     * Queue the events a reconnecting client missed, or tell it to reload when they are no longer
+     * buffered (or would not fit in its outbound buffer). Called with deliveryLock held.
      */
-    public int getActiveConnectionCount() {
-        int count = globalEmitters.size();
-        for (CopyOnWriteArrayList<SseEmitter> emitters : projectEmitters.values()) {
-            count += emitters.size();
+    private void replayMissedEvents(SseSubscriber subscriber, Set<UUID> projectIds, String lastEventId) {
+        replayMissedEvents(subscriber, projectIds, Map.of(), lastEventId);
+    }
+
+    /**
+     * Same, also replaying the events of single issues of other projects
+     *
+     * @param issueIdsByProject issues whose events are replayed, by project
+     */
+    private void replayMissedEvents(SseSubscriber subscriber, Set<UUID> projectIds,
+                                    Map<UUID, Set<UUID>> issueIdsByProject, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        Long lastSequence = parseEventSequence(lastEventId);
+        List<SseReplayBuffer.Entry> missed = lastSequence != null
+            ? missedEvents(projectIds, issueIdsByProject, lastSequence) : null;
+        if (missed == null || missed.size() >= bufferSize) {
+            subscriber.offer(SseFrame.of("reload", "Missed events are no longer available"));
+            return;
+        }
+        missed.forEach(entry -> subscriber.offer(entry.frameFor(subscriber)));
+    }
+
+    private List<SseReplayBuffer.Entry> missedEvents(Set<UUID> projectIds, Map<UUID, Set<UUID>> issueIdsByProject,
+                                                     long lastSequence) {
+        List<SseReplayBuffer.Entry> missed = new ArrayList<>();
+        for (UUID projectId : projectIds) {
+            if (!addMissedEvents(missed, projectId, lastSequence, entry -> true)) {
+                return null;
+            }
+        }
+        for (Map.Entry<UUID, Set<UUID>> issues : issueIdsByProject.entrySet()) {
+            Set<UUID> issueIds = issues.getValue();
+            if (!addMissedEvents(missed, issues.getKey(), lastSequence,
+                    entry -> issueIds.contains(entry.frame().getKey()))) {
+                return null;
+            }
+        }
+        missed.sort(Comparator.comparingLong(SseReplayBuffer.Entry::sequence));
+        return missed;
+    }
+
+    // False if events after the sequence are no longer buffered for the project
+    private boolean addMissedEvents(List<SseReplayBuffer.Entry> missed, UUID projectId, long lastSequence,
+                                    Predicate<SseReplayBuffer.Entry> filter) {
+        SseReplayBuffer buffer = replayBuffers.get(projectId);
+        if (buffer == null) {
+            return true;
+        }
+        List<SseReplayBuffer.Entry> entries = buffer.entriesAfter(lastSequence);
+        if (entries == null) {
+            return false;
+        }
+        entries.stream().filter(filter).forEach(missed::add);
+        return true;
+    }
+
+    // Sequence number of an event ID issued by this instance, null for unknown or stale IDs
+    private Long parseEventSequence(String eventId) {
+        String[] parts = eventId.trim().split("-");
+        if (parts.length != 2 || !parts[0].equals(Long.toString(streamEpoch))) {
+            return null;
+        }
+        try {
+            return Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void sendProjectEvent(ProjectDTO project, String eventType, List<UUID> userIds) {
+        SseFrame frame = null;
+        for (UUID userId : userIds) {
+            Set<SseSubscriber> subscribers = userEmitters.get(userId);
+            if (subscribers != null && !subscribers.isEmpty()) {
+                if (frame == null) {
+                    frame = SseFrame.of(null, eventType, serialize(eventType, project), null);
+                }
+                sendToSubscribers(subscribers, frame);
+            }
         }
-        for (CopyOnWriteArrayList<SseEmitter> emitters : userEmitters.values()) {
-            count += emitters.size();
+    }
+
+    /**
+     * Serialize an event payload, once for all subscribers
+     */
+    private String serialize(String eventType, Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + eventType + " event", e);
+        }
+    }
+
+    /**
+     * Queue an encoded frame on every subscriber. Never blocks on a slow connection.
+     */
+    private void sendToSubscribers(Set<SseSubscriber> subscribers, SseFrame frame) {
+        subscribers.removeIf(subscriber -> !subscriber.offer(frame)); // Remove closed subscribers
+    }
+
+    private SseSubscriber newSubscriber(String topic, UUID userId, boolean deltas, SseConnection connection) {
+        return new SseSubscriber(topic, userId, deltas, connection, bufferSize, overflowPolicy, writer,
+            policy -> overflowCounters.get(policy).increment());
+    }
+
+    private void onClose(SseSubscriber subscriber, Runnable removal) {
+        Map<SseSubscriber, Runnable> slot = heartbeatWheel.get((int) (subscriber.getId() % HEARTBEAT_WHEEL_SLOTS));
+        Runnable close = () -> {
+            subscriber.close();
+            removal.run();
+            slot.remove(subscriber);
+        };
+        slot.put(subscriber, close);
+        subscriber.getConnection().onClose(close);
+    }
+
+    /**
+     * Add a subscriber to a project's or user's set. Done within compute, so it cannot race with the
+     * removal of the last subscriber dropping the set.
+     */
+    private void addSubscriber(Map<UUID, Set<SseSubscriber>> subscribersById, UUID id, SseSubscriber subscriber) {
+        subscribersById.compute(id, (key, subscribers) -> {
+            Set<SseSubscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+    }
+
+    /**
+     * Remove a subscriber from a project's or user's set, dropping the set once empty
+     */
+    private void removeSubscriber(Map<UUID, Set<SseSubscriber>> subscribersById,
+                                  UUID id, SseSubscriber subscriber) {
+        subscribersById.computeIfPresent(id, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * Visit the connections in the next wheel slot, so each one is checked once per heartbeat interval:
+     * unregister closed ones, drop the ones stuck in a write, expire idle or too old ones and send
+     * a heartbeat to quiet ones
+     */
+    private void checkNextHeartbeatSlot() {
+        Map<SseSubscriber, Runnable> slot = heartbeatWheel.get((int) (heartbeatTick++ % HEARTBEAT_WHEEL_SLOTS));
+        long now = System.currentTimeMillis();
+        slot.forEach((subscriber, close) -> {
+            try {
+                checkConnection(subscriber, close, now);
+            } catch (RuntimeException e) {
+                // Escaping the scheduled task would cancel it, stopping heartbeats and reaping for good
+                log.error("SSE connection check failed for subscriber {}", subscriber.getId(), e);
+            }
+        });
+    }
+
+    private void checkConnection(SseSubscriber subscriber, Runnable close, long now) {
+        if (subscriber.isClosed()) {
+            // Failed write; the connection's own callbacks may not have run yet
+            close.run();
+        } else if (writeTimeoutMillis > 0 && subscriber.isWritingSince(now - writeTimeoutMillis)) {
+            // The client stopped reading. Its writer thread is only released once the container's
+            // own write timeout fails the write, but no more frames are queued for it meanwhile
+            writeTimeoutCounter.increment();
+            subscriber.expire();
+            close.run();
+        } else if ((maxLifetimeMillis > 0 && now - subscriber.getConnectedAt() > maxLifetimeMillis)
+                || (maxIdleMillis > 0 && now - subscriber.getLastEventAt() > maxIdleMillis)) {
+            // EventSource reconnects by itself, resuming from its Last-Event-ID
+            subscriber.expire();
+            close.run();
+        } else if (subscriber.isQuietSince(now - heartbeatIntervalMillis / 2)) {
+            subscriber.offer(HEARTBEAT);
+            heartbeatCounter.increment();
         }
-        return count;
+    }
+
+    /**
+     * Every connection once; a stream is listed under each of its topics, so it is taken from streams instead
+     */
+    private Stream<SseSubscriber> allSubscribers() {
+        return Stream.concat(
+            Stream.of(globalEmitters, projectEmitters, userEmitters)
+                .flatMap(subscribersById -> subscribersById.values().stream())
+                .flatMap(Set::stream)
+                .filter(subscriber -> !subscriber.getTopic().startsWith("stream:")),
+            streams.values().stream().map(SseStream::getSubscriber));
+    }
+
+    /**
+     * Get subscribers whose buffered events are older than the lag threshold,
+     * optionally restricted to one project
+     */
+    public List<SseSubscriber.Snapshot> getLaggingSubscribers(UUID projectId) {
+        Stream<SseSubscriber> subscribers = projectId != null
+            ? projectEmitters.getOrDefault(projectId, Set.of()).stream()
+            : allSubscribers();
+        List<SseSubscriber.Snapshot> lagging = new ArrayList<>();
+        subscribers.map(SseSubscriber::snapshot)
+            .filter(snapshot -> snapshot.lagMillis() > lagThresholdMillis)
+            .forEach(lagging::add);
+        return lagging;
+    }
+
+    private long getBufferedFrameCount() {
+        return allSubscribers().mapToLong(subscriber -> subscriber.snapshot().queued()).sum();
+    }
+
+    /**
+     * Get the number of active connections
+     */
+    public int getActiveConnectionCount() {
+        return (int) allSubscribers().count();
+    }
+
+    /**
+     * Get the number of open multiplexed streams
+     */
+    public int getStreamCount() {
+        return streams.size();
     }
 
     /**
      * Get the number of active connections for a specific project
      */
     public int getProjectConnectionCount(UUID projectId) {
-        CopyOnWriteArrayList<SseEmitter> emitters = projectEmitters.get(projectId);
-        return emitters != null ? emitters.size() : 0;
+        Set<SseSubscriber> subscribers = projectEmitters.get(projectId);
+        return subscribers != null ? subscribers.size() : 0;
     }
 
     /**
      * Get the number of active connections for a specific user
      */
     public int getUserConnectionCount(UUID userId) {
-        CopyOnWriteArrayList<SseEmitter> emitters = userEmitters.get(userId);
-        return emitters != null ? emitters.size() : 0;
+        Set<SseSubscriber> subscribers = userEmitters.get(userId);
+        return subscribers != null ? subscribers.size() : 0;
     }
 }
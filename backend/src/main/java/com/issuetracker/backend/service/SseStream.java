@@ -0,0 +1,126 @@
+package com.issuetracker.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A multiplexed SSE connection and the topics it is currently subscribed to.
+ *
+ * Topics are added and removed through SseService while the connection stays open.
+ * All topic state is guarded by SseService's delivery lock.
+ */
+public class SseStream {
+
+    private final UUID id;
+
+    private final UUID userId;
+
+    private final SseSubscriber subscriber;
+
+    private boolean userEvents;
+
+    private final Set<UUID> projectIds = new HashSet<>();
+
+    // Subscribed issue IDs mapped to their project ID
+    private final Map<UUID, UUID> issueProjectIds = new HashMap<>();
+
+    public SseStream(UUID id, UUID userId, SseSubscriber subscriber) {
+        this.id = id;
+        this.userId = userId;
+        this.subscriber = subscriber;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public SseSubscriber getSubscriber() {
+        return subscriber;
+    }
+
+    /**
+     * True if the stream receives the project's issue events through a project topic
+     */
+    boolean hasProject(UUID projectId) {
+        return projectIds.contains(projectId);
+    }
+
+    /**
+     * True if any project or issue topic of the stream belongs to the project
+     */
+    boolean touchesProject(UUID projectId) {
+        return projectIds.contains(projectId) || issueProjectIds.containsValue(projectId);
+    }
+
+    /**
+     * Projects the stream's project and issue topics belong to
+     */
+    Set<UUID> touchedProjectIds() {
+        Set<UUID> touched = new HashSet<>(projectIds);
+        touched.addAll(issueProjectIds.values());
+        return touched;
+    }
+
+    boolean contains(SseTopic topic) {
+        return switch (topic.kind()) {
+            case USER -> userEvents;
+            case PROJECT -> projectIds.contains(topic.id());
+            case ISSUE -> issueProjectIds.containsKey(topic.id());
+        };
+    }
+
+    /**
+     * Record a topic, returning false if the stream already had it
+     */
+    boolean add(SseTopic topic) {
+        switch (topic.kind()) {
+            case USER:
+                boolean added = !userEvents;
+                userEvents = true;
+                return added;
+            case PROJECT:
+                return projectIds.add(topic.id());
+            default:
+                return issueProjectIds.putIfAbsent(topic.id(), topic.projectId()) == null;
+        }
+    }
+
+    /**
+     * Forget a topic, returning false if the stream did not have it
+     */
+    boolean remove(SseTopic topic) {
+        switch (topic.kind()) {
+            case USER:
+                boolean removed = userEvents;
+                userEvents = false;
+                return removed;
+            case PROJECT:
+                return projectIds.remove(topic.id());
+            default:
+                return issueProjectIds.remove(topic.id()) != null;
+        }
+    }
+
+    int topicCount() {
+        return (userEvents ? 1 : 0) + projectIds.size() + issueProjectIds.size();
+    }
+
+    List<SseTopic> topics() {
+        List<SseTopic> topics = new ArrayList<>();
+        if (userEvents) {
+            topics.add(SseTopic.user());
+        }
+        projectIds.forEach(projectId -> topics.add(SseTopic.project(projectId)));
+        issueProjectIds.forEach((issueId, projectId) -> topics.add(SseTopic.issue(issueId, projectId)));
+        return topics;
+    }
+}
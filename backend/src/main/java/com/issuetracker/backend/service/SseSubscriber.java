@@ -0,0 +1,308 @@
+package com.issuetracker.backend.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One SSE connection with its own bounded outbound buffer.
+ *
+ * Broadcasts only enqueue frames; a shared writer pool drains each subscriber's buffer,
+ * with at most one drain task per subscriber at a time. A slow client therefore only
+ * delays its own buffer, and the overflow policy decides what happens when it fills up.
+ * A client cannot tell that events were dropped, so once the buffer has drained after a
+ * drop it is sent a "reload" event.
+ * On a non-blocking connection the drain stops when the socket is full and is rescheduled
+ * once the connection reports it is writable again. On a blocking connection a client that
+ * stops reading holds a writer thread until the write fails; {@link #isWritingSince} lets
+ * the owner drop such a subscriber once its write has been stuck for too long.
+ */
+public class SseSubscriber {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final long id = SEQUENCE.incrementAndGet();
+
+    private final String topic;
+
+    private final UUID userId;
+
+    private final boolean deltas;
+
+    private final SseConnection connection;
+
+    private final int capacity;
+
+    private final SseOverflowPolicy overflowPolicy;
+
+    private final Executor writer;
+
+    private final Consumer<SseOverflowPolicy> overflowListener;
+
+    private final long connectedAt = System.currentTimeMillis();
+
+    // Drain requests not yet handled, a drain task runs while this is non-zero
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    // Guarded by this
+    private final Deque<Pending> buffer = new ArrayDeque<>();
+    private boolean closed;
+    private long sentCount;
+    private long droppedCount;
+    private long lastEventAt = connectedAt;
+    private long lastWriteAt = connectedAt;
+    private long writingSince;
+    // Set when an event was dropped, cleared once "reload" is queued after the buffer drained
+    private boolean dirty;
+
+    public SseSubscriber(String topic, UUID userId, boolean deltas, SseConnection connection, int capacity,
+                         SseOverflowPolicy overflowPolicy, Executor writer, Consumer<SseOverflowPolicy> overflowListener) {
+        this.topic = topic;
+        this.userId = userId;
+        this.deltas = deltas;
+        this.connection = connection;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.writer = writer;
+        this.overflowListener = overflowListener;
+        connection.onWritable(this::scheduleDrain);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * What the connection subscribed to: "project:&lt;id&gt;", "global", "user:&lt;id&gt;" or "stream:&lt;id&gt;"
+     */
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * User the connection was opened by
+     */
+    public UUID getUserId() {
+        return userId;
+    }
+
+    /**
+     * Whether issue changes are sent as patches rather than full snapshots
+     */
+    public boolean isDeltas() {
+        return deltas;
+    }
+
+    public SseConnection getConnection() {
+        return connection;
+    }
+
+    public long getConnectedAt() {
+        return connectedAt;
+    }
+
+    /**
+     * Queue a frame for this subscriber without blocking.
+     *
+     * @return false if the subscriber is closed and should be removed
+     */
+    public boolean offer(SseFrame frame) {
+        boolean disconnect = false;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (frame.getEventName() != null) {
+                lastEventAt = System.currentTimeMillis();
+            }
+            if (buffer.size() >= capacity) {
+                overflowListener.accept(overflowPolicy);
+                switch (overflowPolicy) {
+                    case COALESCE -> {
+                        if (!replacePending(frame)) {
+                            dropOldest();
+                            buffer.addLast(new Pending(frame, System.currentTimeMillis()));
+                        }
+                    }
+                    case DROP_OLDEST -> {
+                        dropOldest();
+                        buffer.addLast(new Pending(frame, System.currentTimeMillis()));
+                    }
+                    case DISCONNECT -> {
+                        closed = true;
+                        buffer.clear();
+                        disconnect = true;
+                    }
+                }
+                droppedCount++;
+            } else {
+                buffer.addLast(new Pending(frame, System.currentTimeMillis()));
+            }
+        }
+        if (disconnect) {
+            connection.complete();
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * Stop accepting frames, e.g. once the connection has completed or failed
+     */
+    public synchronized void close() {
+        closed = true;
+        buffer.clear();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Close the connection from the server side. The connection is completed on the writer pool,
+     * so a caller is never blocked behind a write stuck on this connection.
+     */
+    public void expire() {
+        close();
+        writer.execute(connection::complete);
+    }
+
+    /**
+     * Time of the last event queued for this subscriber (comments excluded), or of connecting
+     */
+    public synchronized long getLastEventAt() {
+        return lastEventAt;
+    }
+
+    /**
+     * True if nothing is queued or being written and nothing was written since the given time
+     */
+    public synchronized boolean isQuietSince(long time) {
+        return buffer.isEmpty() && drainRequests.get() == 0 && lastWriteAt < time;
+    }
+
+    /**
+     * True if a write to the connection started before the given time and has not returned yet
+     */
+    public synchronized boolean isWritingSince(long time) {
+        return writingSince != 0 && writingSince < time;
+    }
+
+    /**
+     * Current state of the buffer, for lag monitoring
+     */
+    public synchronized Snapshot snapshot() {
+        Pending oldest = buffer.peekFirst();
+        long lagMillis = oldest != null ? System.currentTimeMillis() - oldest.enqueuedAt() : 0;
+        return new Snapshot(id, topic, buffer.size(), sentCount, droppedCount, lagMillis);
+    }
+
+    // Called with this held
+    private void dropOldest() {
+        Pending dropped = buffer.pollFirst();
+        if (dropped != null && dropped.frame().getEventName() != null) {
+            dirty = true;
+        }
+    }
+
+    // Replace the newest buffered frame with the same key, keeping its place in the queue
+    private boolean replacePending(SseFrame frame) {
+        if (frame.getKey() == null) {
+            return false;
+        }
+        Iterator<Pending> iterator = buffer.descendingIterator();
+        while (iterator.hasNext()) {
+            Pending pending = iterator.next();
+            if (frame.getKey().equals(pending.frame().getKey())) {
+                pending.replace(frame);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scheduleDrain() {
+        if (drainRequests.getAndIncrement() == 0) {
+            writer.execute(this::drain);
+        }
+    }
+
+    // Write buffered frames while the connection accepts them. Requests arriving meanwhile
+    // are absorbed by the loop; a full connection resumes through its writable callback.
+    private void drain() {
+        int requests = drainRequests.get();
+        do {
+            try {
+                writeBuffered();
+            } catch (IOException | RuntimeException e) {
+                // Broken pipe, already completed connection or any other failure: drop the subscriber
+                close();
+                connection.completeWithError(e);
+            } finally {
+                requests = drainRequests.addAndGet(-requests);
+            }
+        } while (requests != 0);
+    }
+
+    private void writeBuffered() throws IOException {
+        while (connection.isReady()) {
+            Pending next;
+            synchronized (this) {
+                next = closed ? null : buffer.pollFirst();
+                if (next == null && dirty && !closed) {
+                    dirty = false;
+                    next = new Pending(SseFrame.of("reload", "Some events were dropped"), System.currentTimeMillis());
+                }
+                if (next == null) {
+                    return;
+                }
+                writingSince = System.currentTimeMillis();
+            }
+            try {
+                connection.write(next.frame());
+            } finally {
+                synchronized (this) {
+                    writingSince = 0;
+                }
+            }
+            synchronized (this) {
+                sentCount++;
+                lastWriteAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static final class Pending {
+
+        private SseFrame frame;
+
+        private final long enqueuedAt;
+
+        Pending(SseFrame frame, long enqueuedAt) {
+            this.frame = frame;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        SseFrame frame() {
+            return frame;
+        }
+
+        long enqueuedAt() {
+            return enqueuedAt;
+        }
+
+        void replace(SseFrame newer) {
+            frame = newer;
+        }
+    }
+
+    public record Snapshot(long id, String topic, int queued, long sent, long dropped, long lagMillis) {
+    }
+}
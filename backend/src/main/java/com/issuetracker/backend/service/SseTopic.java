@@ -0,0 +1,78 @@
+package com.issuetracker.backend.service;
+
+import com.issuetracker.backend.exception.BadRequestException;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A topic of a multiplexed SSE stream: "user" for the user's own events, "project:&lt;id&gt;"
+ * for all issue events of a project, or "issue:&lt;id&gt;" for the events of a single issue.
+ *
+ * Topics are equal when their names are, whether or not the project of an issue topic is known.
+ *
+ * @param id        project or issue ID, null for the user topic
+ * @param projectId project the topic belongs to, null for the user topic
+ */
+public record SseTopic(Kind kind, UUID id, UUID projectId) {
+
+    public enum Kind { USER, PROJECT, ISSUE }
+
+    public static SseTopic user() {
+        return new SseTopic(Kind.USER, null, null);
+    }
+
+    public static SseTopic project(UUID projectId) {
+        return new SseTopic(Kind.PROJECT, projectId, projectId);
+    }
+
+    public static SseTopic issue(UUID issueId, UUID projectId) {
+        return new SseTopic(Kind.ISSUE, issueId, projectId);
+    }
+
+    /**
+     * Parse a topic name. The project of an issue topic is not known yet and left null.
+     */
+    public static SseTopic parse(String name) {
+        String value = name.trim();
+        if (value.equals("user")) {
+            return user();
+        }
+        int separator = value.indexOf(':');
+        if (separator > 0) {
+            try {
+                UUID id = UUID.fromString(value.substring(separator + 1));
+                switch (value.substring(0, separator)) {
+                    case "project":
+                        return project(id);
+                    case "issue":
+                        return issue(id, null);
+                    default:
+                        break;
+                }
+            } catch (IllegalArgumentException e) {
+                // Reported below
+            }
+        }
+        throw new BadRequestException("Invalid topic '" + name + "', expected user, project:<id> or issue:<id>");
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SseTopic topic && kind == topic.kind && Objects.equals(id, topic.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, id);
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case USER -> "user";
+            case PROJECT -> "project:" + id;
+            case ISSUE -> "issue:" + id;
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.issuetracker.backend.dto;
+
+import com.issuetracker.backend.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IssueCursorTest {
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        UUID id = UUID.randomUUID();
+        IssueCursor cursor = new IssueCursor("priority", true, List.of("4", "2024-05-01T10:15:30.123456"), id);
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(IssueCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void decodeKeepsAscendingDirection() {
+        IssueCursor cursor = new IssueCursor("createdAt", false, List.of("2024-05-01T10:15:30"), UUID.randomUUID());
+
+        assertThat(IssueCursor.decode(cursor.encode()).isDescending()).isFalse();
+    }
+
+    @Test
+    void decodeRejectsMalformedTokens() {
+        assertThatThrownBy(() -> IssueCursor.decode("not base64!")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> IssueCursor.decode(encode("createdAt|desc|" + UUID.randomUUID())))
+            .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> IssueCursor.decode(encode("createdAt|desc|2024-05-01T10:15:30|not-a-uuid")))
+            .isInstanceOf(BadRequestException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,254 @@
+package com.issuetracker.backend.repository;
+
+import com.issuetracker.backend.config.IssueSearchFunctionContributor;
+import com.issuetracker.backend.dto.IssueFilter;
+import com.issuetracker.backend.model.Issue;
+import com.issuetracker.backend.model.IssuePriority;
+import com.issuetracker.backend.model.IssueStatus;
+import com.issuetracker.backend.model.Project;
+import com.issuetracker.backend.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Issue queries that depend on PostgreSQL features (full-text search, row value comparisons),
+ * run against the configured database. Each test rolls back.
+ */
+@SpringBootTest
+@Transactional
+class IssueRepositoryTest {
+
+    @Autowired
+    private IssueRepository issueRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    private Project project;
+
+    @BeforeEach
+    void createProject() {
+        user = new User();
+        user.setEmail("repository-test-" + UUID.randomUUID() + "@example.com");
+        user.setPasswordHash("not-a-hash");
+        user.setFullName("Repository Test");
+        user = userRepository.save(user);
+
+        project = new Project();
+        project.setName("Repository test project");
+        project.setOwner(user);
+        project = projectRepository.save(project);
+    }
+
+    @Test
+    void searchMatchesTitleAndDescriptionByPrefix() {
+        Issue title = createIssue("Login page rejects valid passwords", null);
+        Issue description = createIssue("Session problem", "Users cannot login again after authenticating once");
+        createIssue("Unrelated", "Nothing to see here");
+
+        assertThat(search("login:*")).containsExactlyInAnyOrder(title, description);
+        assertThat(search("authent:*")).containsExactly(description);
+        assertThat(search("login:* & password:*")).containsExactly(title);
+    }
+
+    @Test
+    void stopWordsAreTheOnesPostgresDrops() {
+        for (String term : List.of("the", "a", "about", "ourselves", "login", "password", "issue", "thee", "2024")) {
+            Boolean dropped = jdbcTemplate.queryForObject(
+                "SELECT numnode(to_tsquery('" + IssueSearchFunctionContributor.SEARCH_CONFIG + "', ?)) = 0",
+                Boolean.class, term + ":*");
+            assertThat(IssueSearchFunctionContributor.isStopWord(term)).as(term).isEqualTo(dropped);
+        }
+    }
+
+    @Test
+    void everyListQuerySelectsTheIssuesOfTheSameFilters() {
+        IssueStatus[] statuses = IssueStatus.values();
+        IssuePriority[] priorities = IssuePriority.values();
+        for (int i = 0; i < 12; i++) {
+            Issue issue = createIssue("Filter issue " + i + (i % 3 == 0 ? " login" : ""), null);
+            issue.setStatus(statuses[i % statuses.length]);
+            issue.setPriority(priorities[i % priorities.length]);
+            issue.setAssignee(i % 2 == 0 ? user : null);
+            issueRepository.saveAndFlush(issue);
+            jdbcTemplate.update("UPDATE issues SET created_at = ?, updated_at = ? WHERE id = ?",
+                LocalDateTime.of(2024, 1, 1 + i, 0, 0), LocalDateTime.of(2024, 3, 12 - i, 0, 0), issue.getId());
+        }
+        entityManager.clear();
+
+        LocalDateTime from = LocalDateTime.of(2024, 1, 4, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 9, 0, 0);
+        LocalDateTime updatedFrom = LocalDateTime.of(2024, 3, 3, 0, 0);
+        LocalDateTime updatedTo = LocalDateTime.of(2024, 3, 7, 0, 0);
+        List<IssueFilter> filters = List.of(
+            filter(null, null, null, null, null, null, null),
+            filter(List.of(IssueStatus.OPEN), null, null, null, null, null, null),
+            filter(List.of(IssueStatus.OPEN, IssueStatus.CLOSED, IssueStatus.OPEN), null, null, null, null, null, null),
+            filter(null, List.of(IssuePriority.HIGH), null, null, null, null, null),
+            filter(null, List.of(IssuePriority.LOW, IssuePriority.CRITICAL), user.getId(), null, null, null, null),
+            filter(null, null, null, from, null, null, null),
+            filter(null, null, null, null, to, null, null),
+            filter(null, null, null, null, null, updatedFrom, updatedTo),
+            filter(List.of(IssueStatus.IN_PROGRESS, IssueStatus.OPEN), List.of(IssuePriority.MEDIUM, IssuePriority.LOW),
+                user.getId(), from, to, null, null));
+
+        for (IssueFilter filter : filters) {
+            for (String searchQuery : new String[] {null, "login:*"}) {
+                Specification<Issue> spec = IssueSpecifications.withFilters(filter, searchQuery);
+                Set<UUID> expected = issueRepository.findAll(spec).stream().map(Issue::getId).collect(Collectors.toSet());
+
+                List<UUID> keyset = issueRepository.findAfter(spec, IssueSortField.CREATED_AT, true, null, 100)
+                    .stream().map(Issue::getId).toList();
+                List<UUID> slice = issueRepository.findSlice(spec, PageRequest.of(0, 100)).stream()
+                    .map(Issue::getId).toList();
+
+                assertThat(keyset).as("keyset, %s, search %s", filter, searchQuery)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+                assertThat(slice).as("slice, %s, search %s", filter, searchQuery)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+                // The planner never estimates fewer than one row
+                assertThat(issueRepository.estimateCount(spec)).as("estimate, %s, search %s", filter, searchQuery)
+                    .isPositive();
+            }
+        }
+        // The session the estimate ran in shared the connection but not its statement inspector
+        assertThat(issueRepository.findAll(IssueSpecifications.withFilters(projectFilter(), null))).hasSize(12);
+    }
+
+    @Test
+    void adjustCommentCountReturnsTheUpdatedCount() {
+        Issue issue = createIssue("Counted", null);
+
+        assertThat(issueRepository.adjustCommentCount(issue.getId(), 1)).isEqualTo(1);
+        assertThat(issueRepository.adjustCommentCount(issue.getId(), 1)).isEqualTo(2);
+        assertThat(issueRepository.adjustCommentCount(issue.getId(), -1)).isEqualTo(1);
+    }
+
+    @Test
+    void incrementVersionReturnsTheUpdatedVersion() {
+        Issue issue = createIssue("Versioned", null);
+
+        assertThat(issueRepository.incrementVersion(issue.getId())).isEqualTo(1);
+        assertThat(issueRepository.incrementVersion(issue.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void lockingLoadFetchesTheIssueWithItsDetails() {
+        Issue issue = createIssue("Locked", null);
+        issueRepository.incrementVersion(issue.getId());
+        entityManager.clear();
+
+        Issue locked = issueRepository.findWithDetailsForUpdateById(issue.getId()).orElseThrow();
+
+        assertThat(locked.getVersion()).isEqualTo(1);
+        assertThat(locked.getProject().getOwner().getId()).isEqualTo(user.getId());
+        assertThat(locked.getAssignee()).isNull();
+    }
+
+    @Test
+    void reconcileRepairsOnlyDriftedCounts() {
+        Issue drifted = createIssue("Drifted", null);
+        Issue consistent = createIssue("Consistent", null);
+        jdbcTemplate.update("UPDATE issues SET comment_count = 5 WHERE id = ?", drifted.getId());
+
+        List<UUID> locked = issueRepository.lockIdsAfter(new UUID(0L, 0L), Integer.MAX_VALUE);
+
+        assertThat(locked).contains(drifted.getId(), consistent.getId());
+        assertThat(issueRepository.reconcileCommentCounts(List.of(drifted.getId(), consistent.getId()))).isEqualTo(1);
+        assertThat(issueRepository.findCommentCountById(drifted.getId())).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(IssueSortField.class)
+    void keysetPagesVisitEveryIssueOnceInSortOrder(IssueSortField sortField) {
+        IssuePriority[] priorities = IssuePriority.values();
+        for (int i = 0; i < 11; i++) {
+            Issue issue = createIssue("Keyset issue " + i, null);
+            issue.setPriority(priorities[i % priorities.length]);
+            issueRepository.saveAndFlush(issue);
+            // Only three distinct timestamps, so the ID tie-breaker decides most of the order
+            jdbcTemplate.update("UPDATE issues SET created_at = ?, updated_at = ? WHERE id = ?",
+                LocalDateTime.of(2024, 1, 1 + i % 3, 12, 0), LocalDateTime.of(2024, 2, 1 + i % 3, 12, 0), issue.getId());
+        }
+        entityManager.clear();
+
+        for (boolean descending : new boolean[] {true, false}) {
+            List<UUID> expected = issueRepository.findAll(
+                IssueSpecifications.withFilters(projectFilter(), null), sortField.toSort(descending))
+                .stream().map(Issue::getId).toList();
+
+            List<UUID> paged = new ArrayList<>();
+            List<Object> after = null;
+            List<Issue> page;
+            do {
+                page = issueRepository.findAfter(
+                    IssueSpecifications.withFilters(projectFilter(), null), sortField, descending, after, 4);
+                page.forEach(issue -> paged.add(issue.getId()));
+                if (!page.isEmpty()) {
+                    // Same round trip through the cursor's string values as IssueService
+                    Issue last = page.get(page.size() - 1);
+                    after = new ArrayList<>(sortField.parseCursorValues(sortField.cursorValues(last)));
+                    after.add(last.getId());
+                }
+            } while (page.size() == 4);
+
+            assertThat(expected).hasSize(11);
+            assertThat(paged).as("%s %s", sortField, descending ? "desc" : "asc").containsExactlyElementsOf(expected);
+        }
+    }
+
+    private Issue createIssue(String title, String description) {
+        Issue issue = new Issue();
+        issue.setProject(project);
+        issue.setTitle(title);
+        issue.setDescription(description);
+        issue.setCreatedBy(user);
+        return issueRepository.saveAndFlush(issue);
+    }
+
+    private List<Issue> search(String searchQuery) {
+        return issueRepository.findAll(IssueSpecifications.withFilters(projectFilter(), searchQuery));
+    }
+
+    private IssueFilter filter(List<IssueStatus> statuses, List<IssuePriority> priorities, UUID assigneeId,
+                               LocalDateTime createdFrom, LocalDateTime createdTo,
+                               LocalDateTime updatedFrom, LocalDateTime updatedTo) {
+        return new IssueFilter(project.getId(), statuses, priorities, assigneeId, null,
+            createdFrom, createdTo, updatedFrom, updatedTo);
+    }
+
+    private IssueFilter projectFilter() {
+        IssueFilter filter = new IssueFilter();
+        filter.setProjectId(project.getId());
+        return filter;
+    }
+}
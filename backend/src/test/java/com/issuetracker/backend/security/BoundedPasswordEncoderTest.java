@@ -0,0 +1,126 @@
+package com.issuetracker.backend.security;
+
+import com.issuetracker.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Hashes block until released, so the test controls how many are in progress
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 2, 2, 5, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        encoder.shutdown();
+    }
+
+    @Test
+    void delegatesToTheWrappedEncoder() {
+        release.countDown();
+
+        assertThat(encoder.encode("secret")).isEqualTo("hashed:secret");
+        assertThat(encoder.matches("secret", "hashed:secret")).isTrue();
+        assertThat(encoder.matches("guess", "hashed:secret")).isFalse();
+        assertThat(meterRegistry.get("auth.password.hashing").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void runsAtMostOneHashPerThreadAndRejectsOnceTheQueueIsFull() throws Exception {
+        List<Future<Boolean>> accepted = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accepted.add(callers.submit(() -> encoder.matches("secret", "hashed:secret")));
+        }
+        // Two hashing, two queued
+        awaitHashing(2, 2);
+
+        assertThatThrownBy(() -> encoder.matches("secret", "hashed:secret"))
+            .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(5));
+        assertThat(meterRegistry.get("auth.password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        for (Future<Boolean> result : accepted) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(maxRunning).hasValue(2);
+    }
+
+    @Test
+    void failureOfTheWrappedEncoderReachesTheCaller() {
+        release.countDown();
+
+        assertThatThrownBy(() -> encoder.matches("secret", null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Encoded password is missing");
+    }
+
+    private void awaitHashing(int hashing, int queued) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (running.get() < hashing || meterRegistry.get("auth.password.hashing.queued").gauge().value() < queued) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Password operations were not queued");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return hash(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if (encodedPassword == null) {
+                throw new IllegalArgumentException("Encoded password is missing");
+            }
+            return hash(rawPassword).equals(encodedPassword);
+        }
+
+        private String hash(CharSequence rawPassword) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return "hashed:" + rawPassword;
+        }
+    }
+}
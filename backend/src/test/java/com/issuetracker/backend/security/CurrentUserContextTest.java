@@ -0,0 +1,82 @@
+package com.issuetracker.backend.security;
+
+import com.issuetracker.backend.model.User;
+import com.issuetracker.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class CurrentUserContextTest {
+
+    private final UserPrincipal principal = new UserPrincipal(UUID.randomUUID(), "user@example.com", "User", "hash");
+
+    private UserRepository userRepository;
+
+    private CurrentUserContext currentUserContext;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        currentUserContext = new CurrentUserContext();
+        ReflectionTestUtils.setField(currentUserContext, "userRepository", userRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readsTheAuthenticatedPrincipalWithoutQueryingTheDatabase() {
+        authenticate(principal);
+
+        assertThat(currentUserContext.get()).isSameAs(principal);
+        assertThat(currentUserContext.getId()).isEqualTo(principal.getId());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void referenceIsTakenWithoutLoadingTheUser() {
+        authenticate(principal);
+        User reference = new User();
+        when(userRepository.getReferenceById(principal.getId())).thenReturn(reference);
+
+        assertThat(currentUserContext.getReference()).isSameAs(reference);
+        verify(userRepository).getReferenceById(principal.getId());
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void failsWithoutAnAuthenticatedUser() {
+        assertThatThrownBy(() -> currentUserContext.get())
+            .isInstanceOf(AuthenticationCredentialsNotFoundException.class);
+
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser",
+            AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertThatThrownBy(() -> currentUserContext.getId())
+            .isInstanceOf(AuthenticationCredentialsNotFoundException.class);
+        verifyNoInteractions(userRepository);
+    }
+
+    private static void authenticate(UserPrincipal principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
@@ -0,0 +1,111 @@
+package com.issuetracker.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+            // One token per 1000 seconds, so nothing refills while the test runs
+            .withProperty("app.security.rate-limit.auth.capacity", "3")
+            .withProperty("app.security.rate-limit.auth.refill-per-second", "0.001")
+            .withProperty("app.security.rate-limit.sse.enabled", "false");
+
+        rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "environment", environment);
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", meterRegistry);
+        rateLimiter.init();
+    }
+
+    @Test
+    void allowsABurstOfCapacityThenRefuses() {
+        for (long remaining = 2; remaining >= 0; remaining--) {
+            RateLimiter.Decision decision = rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "10.0.0.1");
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.limit()).isEqualTo(3);
+            assertThat(decision.remaining()).isEqualTo(remaining);
+            assertThat(decision.retryAfterSeconds()).isZero();
+        }
+
+        RateLimiter.Decision refused = rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "10.0.0.1");
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.remaining()).isZero();
+        assertThat(refused.retryAfterSeconds()).isBetween(999L, 1000L);
+        assertThat(refused.resetSeconds()).isBetween(2999L, 3000L);
+        assertThat(meterRegistry.get("http.rate-limit.rejected").tag("group", "auth").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void bucketsAreSeparatePerKeyAndGroup() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "10.0.0.1");
+        }
+
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "10.0.0.1").allowed()).isFalse();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "10.0.0.2").allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Group.LOGIN_ACCOUNT, "10.0.0.1").allowed()).isTrue();
+    }
+
+    @Test
+    void checkTakesNoToken() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.check(RateLimiter.Group.AUTH, "10.0.0.1").allowed()).isTrue();
+        }
+        assertThat(rateLimiter.check(RateLimiter.Group.AUTH, "10.0.0.1").remaining()).isEqualTo(3);
+
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "10.0.0.1");
+        }
+        RateLimiter.Decision refused = rateLimiter.check(RateLimiter.Group.AUTH, "10.0.0.1");
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.retryAfterSeconds()).isBetween(999L, 1000L);
+        assertThat(buckets(RateLimiter.Group.AUTH)).containsOnlyKeys("10.0.0.1");
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(RateLimiter.Group.API, "user");
+
+        // Defaults: 200 tokens, 50 per second
+        assertThat(decision.remaining()).isEqualTo(199);
+        assertThat(decision.resetSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    void groupsCanBeSwitchedOffOneByOne() {
+        assertThat(rateLimiter.isEnabled(RateLimiter.Group.AUTH)).isTrue();
+        assertThat(rateLimiter.isEnabled(RateLimiter.Group.SSE)).isFalse();
+
+        ReflectionTestUtils.setField(rateLimiter, "enabled", false);
+        assertThat(rateLimiter.isEnabled(RateLimiter.Group.AUTH)).isFalse();
+    }
+
+    @Test
+    void purgeForgetsOnlyFullBuckets() {
+        rateLimiter.tryAcquire(RateLimiter.Group.AUTH, "10.0.0.1");
+
+        rateLimiter.purgeFullBuckets();
+
+        assertThat(buckets(RateLimiter.Group.AUTH)).containsOnlyKeys("10.0.0.1");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> buckets(RateLimiter.Group group) {
+        return ((Map<RateLimiter.Group, Map<String, ?>>) ReflectionTestUtils.getField(rateLimiter, "buckets")).get(group);
+    }
+}
@@ -0,0 +1,74 @@
+package com.issuetracker.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private final UserDetails principal = User.withUsername("user@example.com").password("").authorities(List.of()).build();
+
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60000L);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+    }
+
+    @Test
+    void keepsOnlyHashesOfTheTokens() {
+        cache.put("token", principal, System.currentTimeMillis() + 60000);
+
+        assertThat(cache.get("token")).isSameAs(principal);
+        assertThat(cache.get("other")).isNull();
+        assertThat(entries().keySet()).singleElement().asString()
+            .hasSize(64)
+            .doesNotContain("token");
+    }
+
+    @Test
+    void expiredTokenIsNotReturned() {
+        cache.put("token", principal, System.currentTimeMillis() - 1);
+
+        assertThat(cache.get("token")).isNull();
+        assertThat(entries()).isEmpty();
+    }
+
+    @Test
+    void evictsExpiredThenSoonestExpiringEntriesWhenFull() {
+        long now = System.currentTimeMillis();
+        cache.put("expired", principal, now - 1);
+        for (int i = 1; i < 10; i++) {
+            cache.put("token-" + i, principal, now + i * 1000);
+        }
+
+        // Full: only the expired entry has to go
+        cache.put("token-10", principal, now + 10000);
+        assertThat(entries()).hasSize(10);
+        assertThat(cache.get("token-1")).isSameAs(principal);
+
+        // Full of live entries: the soonest expiring tenth goes
+        cache.put("token-11", principal, now + 11000);
+        assertThat(entries()).hasSize(10);
+        assertThat(cache.get("token-1")).isNull();
+        assertThat(cache.get("token-2")).isSameAs(principal);
+        assertThat(cache.get("token-11")).isSameAs(principal);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> entries() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(cache, "entries");
+    }
+}
@@ -0,0 +1,94 @@
+package com.issuetracker.backend.service;
+
+import com.issuetracker.backend.dto.LoginRequest;
+import com.issuetracker.backend.exception.BadCredentialsException;
+import com.issuetracker.backend.exception.TooManyRequestsException;
+import com.issuetracker.backend.security.JwtTokenProvider;
+import com.issuetracker.backend.security.RateLimiter;
+import com.issuetracker.backend.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String PASSWORD = "correct horse";
+
+    private final UserPrincipal user = new UserPrincipal(UUID.randomUUID(), "user@example.com", "User", "hash");
+
+    private AuthenticationManager authenticationManager;
+
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        // Three failed attempts per account, refilled far slower than the test runs
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("app.security.rate-limit.login-account.capacity", "3")
+            .withProperty("app.security.rate-limit.login-account.refill-per-second", "0.001");
+        RateLimiter rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "environment", environment);
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(rateLimiter, "init");
+
+        authenticationManager = mock(AuthenticationManager.class);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            UsernamePasswordAuthenticationToken token = invocation.getArgument(0);
+            if (!PASSWORD.equals(token.getCredentials())) {
+                throw new org.springframework.security.authentication.BadCredentialsException("Bad credentials");
+            }
+            return new UsernamePasswordAuthenticationToken(user, null, List.of());
+        });
+        JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+        when(tokenProvider.generateToken(any())).thenReturn("token");
+
+        authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "authenticationManager", authenticationManager);
+        ReflectionTestUtils.setField(authService, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(authService, "rateLimiter", rateLimiter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void successfulSignInsDoNotUseUpTheAccountsAttempts() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(authService.login(new LoginRequest("user@example.com", PASSWORD)).getToken()).isEqualTo("token");
+        }
+    }
+
+    @Test
+    void failedAttemptsLockTheAccountBeforeThePasswordIsChecked() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> authService.login(new LoginRequest("User@Example.com ", "guess")))
+                .isInstanceOf(BadCredentialsException.class);
+        }
+
+        assertThatThrownBy(() -> authService.login(new LoginRequest("user@example.com", PASSWORD)))
+            .isInstanceOf(TooManyRequestsException.class);
+        verify(authenticationManager, times(3)).authenticate(any());
+        // Other accounts are unaffected
+        assertThat(authService.login(new LoginRequest("other@example.com", PASSWORD)).getToken()).isEqualTo("token");
+    }
+}
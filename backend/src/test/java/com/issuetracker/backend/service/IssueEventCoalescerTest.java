@@ -0,0 +1,148 @@
+package com.issuetracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.issuetracker.backend.dto.IssueDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Windows are closed by the test, by running the flush the coalescer scheduled.
+ */
+class IssueEventCoalescerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final UUID projectId = UUID.randomUUID();
+
+    private final List<SseBusEvent> delivered = new ArrayList<>();
+
+    private final AtomicInteger coalesced = new AtomicInteger();
+
+    private ScheduledExecutorService scheduler;
+
+    private IssueEventCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = mock(ScheduledExecutorService.class);
+        coalescer = new IssueEventCoalescer(50, scheduler, delivered::add, coalesced::incrementAndGet);
+    }
+
+    @Test
+    void burstForOneIssueIsDeliveredOnceWithTheLatestStateAndAllPatches() {
+        IssueDTO first = issue(UUID.randomUUID(), 1);
+        IssueDTO second = issue(first.getId(), 2);
+        IssueDTO third = issue(first.getId(), 3);
+
+        coalescer.submit(change(first, "issue.updated", patch("title", "Renamed"), 0));
+        coalescer.submit(change(second, "issue.status.changed", patch("status", "CLOSED"), 1));
+        coalescer.submit(change(third, "issue.updated", patch("title", "Renamed again"), 2));
+        assertThat(delivered).isEmpty();
+
+        closeWindow();
+
+        assertThat(delivered).hasSize(1);
+        SseBusEvent event = delivered.get(0);
+        assertThat(event.getIssue().getVersion()).isEqualTo(3);
+        assertThat(event.getEventType()).isEqualTo("issue.updated");
+        // Clients holding the first base version can still apply the combined patch
+        assertThat(event.getBaseVersion()).isZero();
+        assertThat(event.getPatch()).isEqualTo(patch("title", "Renamed again").put("status", "CLOSED"));
+        assertThat(coalesced).hasValue(2);
+    }
+
+    @Test
+    void issuesAreDeliveredInTheOrderTheyFirstAppeared() {
+        IssueDTO a = issue(UUID.randomUUID(), 1);
+        IssueDTO b = issue(UUID.randomUUID(), 1);
+
+        coalescer.submit(SseBusEvent.issue(a, "issue.updated"));
+        coalescer.submit(SseBusEvent.issue(b, "issue.updated"));
+        coalescer.submit(SseBusEvent.issue(issue(a.getId(), 2), "issue.updated"));
+        closeWindow();
+
+        assertThat(delivered).extracting(event -> event.getIssue().getId()).containsExactly(a.getId(), b.getId());
+        assertThat(delivered.get(0).getIssue().getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void creationFollowedByUpdatesIsStillACreation() {
+        IssueDTO created = issue(UUID.randomUUID(), 0);
+        coalescer.submit(SseBusEvent.issue(created, "issue.created"));
+        coalescer.submit(change(issue(created.getId(), 1), "issue.updated", patch("title", "Renamed"), 0));
+        closeWindow();
+
+        assertThat(delivered).hasSize(1);
+        assertThat(delivered.get(0).getEventType()).isEqualTo("issue.created");
+        assertThat(delivered.get(0).getIssue().getVersion()).isEqualTo(1);
+        // Clients never saw the issue, so there is nothing to patch
+        assertThat(delivered.get(0).getPatch()).isNull();
+    }
+
+    @Test
+    void creationFollowedByDeletionIsNotDelivered() {
+        IssueDTO created = issue(UUID.randomUUID(), 0);
+        IssueDTO other = issue(UUID.randomUUID(), 1);
+        coalescer.submit(SseBusEvent.issue(created, "issue.created"));
+        coalescer.submit(SseBusEvent.issue(other, "issue.updated"));
+        coalescer.submit(SseBusEvent.issue(created, "issue.deleted"));
+        closeWindow();
+
+        assertThat(delivered).extracting(event -> event.getIssue().getId()).containsExactly(other.getId());
+    }
+
+    @Test
+    void eachWindowIsScheduledOnceAndTheNextEventOpensANewOne() {
+        coalescer.submit(SseBusEvent.issue(issue(UUID.randomUUID(), 1), "issue.updated"));
+        coalescer.submit(SseBusEvent.issue(issue(UUID.randomUUID(), 1), "issue.updated"));
+        closeWindow();
+        assertThat(delivered).hasSize(2);
+
+        IssueDTO later = issue(UUID.randomUUID(), 1);
+        coalescer.submit(SseBusEvent.issue(later, "issue.updated"));
+        closeWindow();
+        assertThat(delivered).hasSize(3);
+        assertThat(delivered.get(2).getIssue().getId()).isEqualTo(later.getId());
+        assertThat(coalesced).hasValue(0);
+    }
+
+    // Runs the single flush scheduled since the last call, failing if none or several were scheduled
+    private void closeWindow() {
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(flush.capture(), eq(50L), eq(TimeUnit.MILLISECONDS));
+        clearInvocations(scheduler);
+        flush.getValue().run();
+    }
+
+    private SseBusEvent change(IssueDTO issue, String eventType, ObjectNode patch, long baseVersion) {
+        return SseBusEvent.issueChange(issue, eventType, patch, baseVersion);
+    }
+
+    private ObjectNode patch(String field, String value) {
+        return objectMapper.createObjectNode().put(field, value);
+    }
+
+    private IssueDTO issue(UUID id, long version) {
+        IssueDTO issue = new IssueDTO();
+        issue.setId(id);
+        issue.setProjectId(projectId);
+        issue.setTitle("Issue");
+        issue.setVersion(version);
+        return issue;
+    }
+}
@@ -0,0 +1,74 @@
+package com.issuetracker.backend.service;
+
+import com.issuetracker.backend.dto.IssueFacetsDTO;
+import com.issuetracker.backend.repository.IssueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IssueFacetServiceTest {
+
+    private final UUID projectId = UUID.randomUUID();
+
+    private IssueRepository issueRepository;
+
+    private IssueFacetService service;
+
+    @BeforeEach
+    void setUp() {
+        issueRepository = mock(IssueRepository.class);
+        service = new IssueFacetService();
+        ReflectionTestUtils.setField(service, "issueRepository", issueRepository);
+    }
+
+    @Test
+    void cachesFacetsUntilInvalidated() {
+        when(issueRepository.countFacetsByProjectId(projectId)).thenReturn(List.of());
+
+        IssueFacetsDTO first = service.getFacets(projectId);
+        assertThat(service.getFacets(projectId)).isSameAs(first);
+        verify(issueRepository, times(1)).countFacetsByProjectId(projectId);
+
+        service.invalidateAfterCommit(projectId);
+        assertThat(service.getFacets(projectId)).isNotSameAs(first);
+        verify(issueRepository, times(2)).countFacetsByProjectId(projectId);
+    }
+
+    @Test
+    void loadRacingWithAnInvalidationIsNotCached() {
+        when(issueRepository.countFacetsByProjectId(projectId)).thenAnswer(invocation -> {
+            // A write commits while the counts are being computed
+            service.invalidateAfterCommit(projectId);
+            return List.of();
+        }).thenReturn(List.of());
+
+        service.getFacets(projectId);
+        service.getFacets(projectId);
+        IssueFacetsDTO cached = service.getFacets(projectId);
+
+        assertThat(service.getFacets(projectId)).isSameAs(cached);
+        verify(issueRepository, times(2)).countFacetsByProjectId(projectId);
+    }
+
+    @Test
+    void keepsNoStateForProjectsNotBeingLoaded() {
+        when(issueRepository.countFacetsByProjectId(projectId)).thenReturn(List.of());
+
+        service.getFacets(projectId);
+        service.invalidateAfterCommit(projectId);
+        service.invalidateAfterCommit(UUID.randomUUID());
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(service, "cache")).isEmpty();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(service, "loads")).isEmpty();
+    }
+}
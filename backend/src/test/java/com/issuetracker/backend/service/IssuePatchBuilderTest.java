@@ -0,0 +1,108 @@
+package com.issuetracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.issuetracker.backend.dto.IssueDTO;
+import com.issuetracker.backend.dto.UserDTO;
+import com.issuetracker.backend.model.IssuePriority;
+import com.issuetracker.backend.model.IssueStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssuePatchBuilderTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) // As configured by Spring Boot
+        .build();
+
+    private final IssuePatchBuilder patchBuilder = new IssuePatchBuilder(objectMapper);
+
+    @Test
+    void mergePatchHoldsOnlyChangedFields() {
+        IssueDTO previous = issue("x".repeat(20 * 1024));
+        IssueDTO issue = copy(previous);
+        issue.setStatus(IssueStatus.CLOSED);
+        issue.setAssignee(null);
+        issue.setVersion(previous.getVersion() + 1);
+
+        ObjectNode patch = patchBuilder.mergePatch(previous, issue);
+
+        assertThat(patch).isEqualTo(objectMapper.createObjectNode().put("status", "CLOSED").putNull("assignee"));
+    }
+
+    @Test
+    void mergePatchReplacesChangedNestedObjectsWhole() {
+        IssueDTO previous = issue("Description");
+        IssueDTO issue = copy(previous);
+        issue.getReporter().setFullName("Renamed User");
+
+        ObjectNode patch = patchBuilder.mergePatch(previous, issue);
+
+        assertThat(patch.fieldNames()).toIterable().containsExactly("reporter");
+        assertThat(patch.get("reporter")).isEqualTo(objectMapper.valueToTree(issue.getReporter()));
+    }
+
+    @Test
+    void patchAppliedToThePreviousIssueGivesTheCurrentOne() throws Exception {
+        IssueDTO previous = issue("Description");
+        IssueDTO issue = copy(previous);
+        issue.setTitle("Renamed");
+        issue.setPriority(IssuePriority.LOW);
+        issue.setAssignee(null);
+        issue.setVersion(previous.getVersion() + 1);
+
+        ObjectNode patched = objectMapper.valueToTree(previous);
+        patched.setAll(patchBuilder.mergePatch(previous, issue));
+        patched.put("version", issue.getVersion());
+
+        assertThat(patched).isEqualTo(objectMapper.valueToTree(issue));
+    }
+
+    @Test
+    void deltaOfAnIssueWithALargeDescriptionIsFarSmallerThanItsSnapshot() throws Exception {
+        IssueDTO previous = issue("x".repeat(20 * 1024));
+        IssueDTO issue = copy(previous);
+        issue.setStatus(IssueStatus.IN_PROGRESS);
+        issue.setUpdatedAt(previous.getUpdatedAt().plusSeconds(1));
+        issue.setVersion(previous.getVersion() + 1);
+
+        ObjectNode patch = patchBuilder.mergePatch(previous, issue);
+        ObjectNode delta = patchBuilder.delta(
+            SseBusEvent.issueChange(issue, "issue.status.changed", patch, previous.getVersion()));
+
+        assertThat(delta.get("baseVersion").asLong()).isEqualTo(previous.getVersion());
+        assertThat(delta.get("version").asLong()).isEqualTo(issue.getVersion());
+        assertThat(delta.get("patch")).isEqualTo(patch);
+
+        int snapshotBytes = objectMapper.writeValueAsString(issue).getBytes(StandardCharsets.UTF_8).length;
+        int deltaBytes = objectMapper.writeValueAsString(delta).getBytes(StandardCharsets.UTF_8).length;
+
+        assertThat(snapshotBytes).isGreaterThan(20 * 1024);
+        assertThat(deltaBytes).isLessThan(256);
+    }
+
+    private IssueDTO issue(String description) {
+        UserDTO assignee = new UserDTO();
+        assignee.setId(UUID.randomUUID());
+        assignee.setEmail("assignee@example.com");
+        assignee.setFullName("Assigned User");
+        UserDTO reporter = new UserDTO();
+        reporter.setId(UUID.randomUUID());
+        reporter.setEmail("reporter@example.com");
+        reporter.setFullName("Reporting User");
+        LocalDateTime now = LocalDateTime.now();
+        return new IssueDTO(UUID.randomUUID(), UUID.randomUUID(), "Project", "Large issue", description,
+            IssueStatus.OPEN, IssuePriority.HIGH, assignee, reporter, UUID.randomUUID(), now, now, 0, 7L);
+    }
+
+    private IssueDTO copy(IssueDTO issue) {
+        return objectMapper.convertValue(issue, IssueDTO.class);
+    }
+}
@@ -0,0 +1,150 @@
+package com.issuetracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.issuetracker.backend.dto.IssueDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes listening on the test database, each with its own bus on a channel of its own
+ * test run. Notifications really go through PostgreSQL.
+ */
+@SpringBootTest
+class PostgresEventBusListenerTest {
+
+    private final String channel = "sse_events_test_" + UUID.randomUUID().toString().replace("-", "");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    private final List<PostgresEventBus> nodes = new ArrayList<>();
+
+    private PostgresEventBus node;
+
+    private PostgresEventBus otherNode;
+
+    private final BlockingQueue<SseBusEvent> received = new LinkedBlockingQueue<>();
+
+    private final BlockingQueue<SseBusEvent> receivedByOtherNode = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        node = startNode();
+        node.subscribe(received::add);
+        otherNode = startNode();
+        otherNode.subscribe(receivedByOtherNode::add);
+        awaitListeners(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(PostgresEventBus::stop);
+    }
+
+    @Test
+    void eventsReachTheOtherNodeOnceAndInOrder() throws Exception {
+        UUID large = UUID.randomUUID();
+        List<UUID> published = List.of(UUID.randomUUID(), large, UUID.randomUUID());
+        for (UUID issueId : published) {
+            node.publish(SseBusEvent.issue(issue(issueId, issueId.equals(large) ? "x".repeat(10000) : ""),
+                "issue.updated"));
+        }
+
+        List<UUID> delivered = new ArrayList<>();
+        for (int i = 0; i < published.size(); i++) {
+            SseBusEvent event = receivedByOtherNode.poll(10, TimeUnit.SECONDS);
+            assertThat(event).isNotNull();
+            delivered.add(event.getIssue().getId());
+        }
+        // The oversized one went through the payload table
+        assertThat(delivered).isEqualTo(published);
+
+        // The publishing node delivered them locally and ignores its own notifications
+        otherNode.publish(SseBusEvent.projectRemoved(UUID.randomUUID()));
+        List<SseBusEvent> local = new ArrayList<>();
+        SseBusEvent event;
+        while ((event = received.poll(10, TimeUnit.SECONDS)) != null && event.getKind() != SseBusEvent.Kind.PROJECT_REMOVED) {
+            local.add(event);
+        }
+        assertThat(event).isNotNull();
+        assertThat(local).extracting(issueEvent -> issueEvent.getIssue().getId()).isEqualTo(published);
+    }
+
+    @Test
+    void resyncIsDeliveredLocallyOnceTheListenerReconnects() throws Exception {
+        Integer terminated = jdbcTemplate.queryForObject(
+            "SELECT count(pg_terminate_backend(pid)) FROM pg_stat_activity WHERE query = ?",
+            Integer.class, "LISTEN " + channel);
+        assertThat(terminated).isEqualTo(2);
+
+        // Notifications sent while they were disconnected are lost, so their clients are told to reload
+        assertThat(received.poll(10, TimeUnit.SECONDS).getKind()).isEqualTo(SseBusEvent.Kind.RESYNC);
+        assertThat(receivedByOtherNode.poll(10, TimeUnit.SECONDS).getKind()).isEqualTo(SseBusEvent.Kind.RESYNC);
+
+        // And they listen again
+        awaitListeners(2);
+        node.publish(SseBusEvent.projectRemoved(UUID.randomUUID()));
+        assertThat(receivedByOtherNode.poll(10, TimeUnit.SECONDS).getKind()).isEqualTo(SseBusEvent.Kind.PROJECT_REMOVED);
+    }
+
+    private PostgresEventBus startNode() {
+        PostgresEventBus bus = new PostgresEventBus();
+        ReflectionTestUtils.setField(bus, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(bus, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(bus, "dataSourceProperties", dataSourceProperties);
+        ReflectionTestUtils.setField(bus, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(bus, "channel", channel);
+        ReflectionTestUtils.setField(bus, "batchWindowMillis", 20L);
+        ReflectionTestUtils.setField(bus, "retryDelayMillis", 1000L);
+        ReflectionTestUtils.setField(bus, "payloadRetentionMillis", 300000L);
+        bus.start();
+        nodes.add(bus);
+        return bus;
+    }
+
+    // Wait until the given number of connections listen on the channel
+    private void awaitListeners(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            Integer listening = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_stat_activity WHERE query = ?", Integer.class, "LISTEN " + channel);
+            if (listening != null && listening >= count) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Event bus listeners did not connect");
+    }
+
+    private static IssueDTO issue(UUID issueId, String description) {
+        IssueDTO issue = new IssueDTO();
+        issue.setId(issueId);
+        issue.setProjectId(UUID.randomUUID());
+        issue.setTitle("Issue");
+        issue.setDescription(description);
+        issue.setVersion(1L);
+        return issue;
+    }
+}
@@ -0,0 +1,194 @@
+package com.issuetracker.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.issuetracker.backend.dto.IssueDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Publishing side of the PostgreSQL bus, with the notifications captured instead of sent.
+ * Flushes are run by the test rather than after the batching window.
+ */
+class PostgresEventBusTest {
+
+    private static final UUID PROJECT_ID = UUID.randomUUID();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<String> notifications = new ArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ScheduledExecutorService publisher;
+
+    private PostgresEventBus bus;
+
+    // Set to make the next notification fail
+    private boolean failNext;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            if (failNext) {
+                failNext = false;
+                throw new DataAccessResourceFailureException("Connection lost");
+            }
+            notifications.add(invocation.getArgument(3));
+            return null;
+        }).when(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(RowCallbackHandler.class), eq("sse_events"), any());
+        publisher = mock(ScheduledExecutorService.class);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        bus = new PostgresEventBus();
+        ReflectionTestUtils.setField(bus, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(bus, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(bus, "channel", "sse_events");
+        ReflectionTestUtils.setField(bus, "batchWindowMillis", 20L);
+        ReflectionTestUtils.setField(bus, "retryDelayMillis", 1000L);
+        ReflectionTestUtils.setField(bus, "publisher", publisher);
+        for (String counter : List.of("notificationsSent", "notificationsReceived", "deduplicated")) {
+            ReflectionTestUtils.setField(bus, counter, Counter.builder(counter).register(meterRegistry));
+        }
+    }
+
+    @Test
+    void failedFlushIsFollowedByAResyncForTheOtherNodes() throws Exception {
+        failNext = true;
+        bus.publish(SseBusEvent.projectRemoved(UUID.randomUUID()));
+        runScheduledFlush(20);
+        assertThat(notifications).isEmpty();
+
+        // Retried without any new event being published. The lost events are not resent, since some of
+        // them may have gone out; the RESYNC makes the other nodes reload and recheck access instead
+        runScheduledFlush(1000);
+
+        assertThat(notifications).hasSize(1);
+        assertThat(kinds(notifications.get(0))).containsExactly("RESYNC");
+
+        bus.publish(SseBusEvent.projectRemoved(UUID.randomUUID()));
+        runScheduledFlush(20);
+        assertThat(kinds(notifications.get(1))).containsExactly("PROJECT_REMOVED");
+    }
+
+    @Test
+    void eventsOfOneWindowAreDeduplicatedAndSentInOneNotification() throws Exception {
+        List<SseBusEvent> local = new ArrayList<>();
+        bus.subscribe(local::add);
+        UUID issueId = UUID.randomUUID();
+        UUID otherIssueId = UUID.randomUUID();
+
+        bus.publish(SseBusEvent.issue(issue(issueId, ""), "issue.updated"));
+        bus.publish(SseBusEvent.issue(issue(otherIssueId, ""), "issue.updated"));
+        bus.publish(SseBusEvent.issue(issue(issueId, ""), "issue.updated"));
+        runScheduledFlush(20);
+
+        // Local listeners get every event right away, the other nodes only the latest per key
+        assertThat(local).hasSize(3);
+        assertThat(notifications).hasSize(1);
+        assertThat(issueIds(notifications.get(0))).containsExactly(otherIssueId, issueId);
+    }
+
+    @Test
+    void batchIsSplitToStayBelowTheNotificationLimit() throws Exception {
+        List<UUID> published = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            UUID issueId = UUID.randomUUID();
+            published.add(issueId);
+            bus.publish(SseBusEvent.issue(issue(issueId, "x".repeat(1000)), "issue.updated"));
+        }
+        runScheduledFlush(20);
+
+        assertThat(notifications).hasSizeBetween(4, 6);
+        List<UUID> sent = new ArrayList<>();
+        for (String notification : notifications) {
+            assertThat(notification.getBytes(StandardCharsets.UTF_8).length).isLessThan(8000);
+            sent.addAll(issueIds(notification));
+        }
+        assertThat(sent).isEqualTo(published);
+    }
+
+    @Test
+    void eventTooLargeForANotificationIsSentByReference() throws Exception {
+        List<String> stored = new ArrayList<>();
+        when(jdbcTemplate.queryForObject(startsWith("INSERT INTO sse_bus_payloads"), eq(Long.class), any(Object[].class)))
+            .thenAnswer(invocation -> {
+                stored.add(invocation.getArgument(2));
+                return 42L;
+            });
+        UUID before = UUID.randomUUID();
+        UUID large = UUID.randomUUID();
+        UUID after = UUID.randomUUID();
+
+        bus.publish(SseBusEvent.issue(issue(before, ""), "issue.updated"));
+        bus.publish(SseBusEvent.issue(issue(large, "x".repeat(10000)), "issue.updated"));
+        bus.publish(SseBusEvent.issue(issue(after, ""), "issue.updated"));
+        runScheduledFlush(20);
+
+        // Still sent in publishing order
+        assertThat(notifications).hasSize(3);
+        assertThat(issueIds(notifications.get(0))).containsExactly(before);
+        assertThat(objectMapper.readTree(notifications.get(1)).path("payloadId").asLong()).isEqualTo(42);
+        assertThat(issueIds(notifications.get(2))).containsExactly(after);
+        assertThat(stored).hasSize(1);
+        assertThat(objectMapper.readValue(stored.get(0), SseBusEvent.class).getIssue().getId()).isEqualTo(large);
+    }
+
+    private void runScheduledFlush(long delayMillis) {
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(publisher).schedule(flush.capture(), eq(delayMillis), eq(TimeUnit.MILLISECONDS));
+        clearInvocations(publisher);
+        flush.getValue().run();
+    }
+
+    private List<String> kinds(String notification) throws Exception {
+        List<String> kinds = new ArrayList<>();
+        for (JsonNode event : objectMapper.readTree(notification).path("events")) {
+            kinds.add(event.path("kind").asText());
+        }
+        return kinds;
+    }
+
+    private List<UUID> issueIds(String notification) throws Exception {
+        List<UUID> issueIds = new ArrayList<>();
+        for (JsonNode event : objectMapper.readTree(notification).path("events")) {
+            issueIds.add(UUID.fromString(event.path("issue").path("id").asText()));
+        }
+        return issueIds;
+    }
+
+    private static IssueDTO issue(UUID issueId, String description) {
+        IssueDTO issue = new IssueDTO();
+        issue.setId(issueId);
+        issue.setProjectId(PROJECT_ID);
+        issue.setTitle("Issue");
+        issue.setDescription(description);
+        issue.setVersion(1L);
+        return issue;
+    }
+}
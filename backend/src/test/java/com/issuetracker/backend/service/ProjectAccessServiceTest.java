@@ -0,0 +1,138 @@
+package com.issuetracker.backend.service;
+
+import com.issuetracker.backend.exception.ForbiddenException;
+import com.issuetracker.backend.repository.ProjectMemberRepository;
+import com.issuetracker.backend.repository.ProjectRepository;
+import com.issuetracker.backend.security.CurrentUserContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProjectAccessServiceTest {
+
+    private final UUID projectId = UUID.randomUUID();
+
+    private final UUID ownerId = UUID.randomUUID();
+
+    private final UUID memberId = UUID.randomUUID();
+
+    private ProjectRepository projectRepository;
+
+    private ProjectMemberRepository projectMemberRepository;
+
+    private CurrentUserContext currentUserContext;
+
+    private EventBus eventBus;
+
+    private ProjectAccessService service;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        projectMemberRepository = mock(ProjectMemberRepository.class);
+        currentUserContext = mock(CurrentUserContext.class);
+        when(projectRepository.findOwnerIdById(projectId)).thenReturn(Optional.of(ownerId));
+
+        eventBus = new InProcessEventBus();
+
+        service = new ProjectAccessService();
+        ReflectionTestUtils.setField(service, "maxEntries", 100);
+        ReflectionTestUtils.setField(service, "ttlMillis", 60000L);
+        ReflectionTestUtils.setField(service, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(service, "projectMemberRepository", projectMemberRepository);
+        ReflectionTestUtils.setField(service, "currentUserContext", currentUserContext);
+        ReflectionTestUtils.setField(service, "eventBus", eventBus);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        service.init();
+    }
+
+    @Test
+    void cachesAccessListUntilInvalidated() {
+        when(projectMemberRepository.findUserIdsByProjectId(projectId)).thenReturn(Set.of(memberId), Set.of());
+
+        assertThat(service.hasAccess(projectId, memberId)).isTrue();
+        assertThat(service.hasAccess(projectId, ownerId)).isTrue();
+        verify(projectMemberRepository, times(1)).findUserIdsByProjectId(projectId);
+
+        service.invalidateAfterCommit(projectId);
+        assertThat(service.hasAccess(projectId, memberId)).isFalse();
+        verify(projectMemberRepository, times(2)).findUserIdsByProjectId(projectId);
+    }
+
+    @Test
+    void loadRacingWithAMembershipChangeIsNotCached() {
+        when(projectMemberRepository.findUserIdsByProjectId(projectId)).thenAnswer(invocation -> {
+            // The member is removed and the change committed while the list is being loaded
+            service.invalidateAfterCommit(projectId);
+            return Set.of(memberId);
+        }).thenReturn(Set.of());
+
+        assertThat(service.hasAccess(projectId, memberId)).isTrue();
+
+        // The stale list was not cached, so the removal is seen right away
+        assertThat(service.hasAccess(projectId, memberId)).isFalse();
+        assertThat(service.hasAccess(projectId, memberId)).isFalse();
+        verify(projectMemberRepository, times(2)).findUserIdsByProjectId(projectId);
+    }
+
+    @Test
+    void resyncDropsEveryCachedList() {
+        // The revocation's bus event was lost; the next RESYNC must not leave the grant cached
+        when(projectMemberRepository.findUserIdsByProjectId(projectId)).thenReturn(Set.of(memberId), Set.of());
+
+        assertThat(service.hasAccess(projectId, memberId)).isTrue();
+        eventBus.publish(SseBusEvent.resync());
+
+        assertThat(service.hasAccess(projectId, memberId)).isFalse();
+        verify(projectMemberRepository, times(2)).findUserIdsByProjectId(projectId);
+    }
+
+    @Test
+    void cachedListExpiresAfterItsTimeToLive() throws Exception {
+        ReflectionTestUtils.setField(service, "ttlMillis", 50L);
+        when(projectMemberRepository.findUserIdsByProjectId(projectId)).thenReturn(Set.of(memberId), Set.of());
+
+        assertThat(service.hasAccess(projectId, memberId)).isTrue();
+        assertThat(service.hasAccess(projectId, memberId)).isTrue();
+        Thread.sleep(100);
+
+        assertThat(service.hasAccess(projectId, memberId)).isFalse();
+        verify(projectMemberRepository, times(2)).findUserIdsByProjectId(projectId);
+    }
+
+    @Test
+    void keepsNoStateForProjectsNotBeingLoaded() {
+        when(projectMemberRepository.findUserIdsByProjectId(projectId)).thenReturn(Set.of());
+
+        service.hasAccess(projectId, ownerId);
+        service.invalidateAfterCommit(projectId);
+        service.invalidateAfterCommit(UUID.randomUUID());
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(service, "cache")).isEmpty();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(service, "loads")).isEmpty();
+    }
+
+    @Test
+    void onlyTheOwnerPassesTheOwnerCheck() {
+        when(projectMemberRepository.findUserIdsByProjectId(projectId)).thenReturn(Set.of(memberId));
+
+        when(currentUserContext.getId()).thenReturn(ownerId);
+        service.checkOwner(projectId);
+
+        when(currentUserContext.getId()).thenReturn(memberId);
+        assertThatThrownBy(() -> service.checkOwner(projectId)).isInstanceOf(ForbiddenException.class);
+    }
+}
@@ -0,0 +1,53 @@
+package com.issuetracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.issuetracker.backend.dto.IssueDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseBusEventTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void supersedeComposesBothPatchesOntoTheOlderBase() {
+        IssueDTO issue = issue();
+        ObjectNode first = objectMapper.createObjectNode().put("title", "Renamed").put("status", "IN_PROGRESS");
+        ObjectNode second = objectMapper.createObjectNode().put("status", "CLOSED").putNull("assignee");
+
+        SseBusEvent merged = SseBusEvent.supersede(
+            SseBusEvent.issueChange(issue, "issue.updated", first, 3),
+            SseBusEvent.issueChange(issue, "issue.status.changed", second, 4));
+
+        assertThat(merged.getBaseVersion()).isEqualTo(3);
+        assertThat(merged.getEventType()).isEqualTo("issue.status.changed");
+        assertThat(merged.getPatch()).isEqualTo(objectMapper.createObjectNode()
+            .put("title", "Renamed").put("status", "CLOSED").putNull("assignee"));
+        // The superseded event's patch is left as it was
+        assertThat(first).isEqualTo(objectMapper.createObjectNode().put("title", "Renamed").put("status", "IN_PROGRESS"));
+    }
+
+    @Test
+    void supersedeByASnapshotKeepsOnlyTheSnapshot() {
+        IssueDTO issue = issue();
+        SseBusEvent snapshot = SseBusEvent.issue(issue, "issue.updated");
+
+        SseBusEvent merged = SseBusEvent.supersede(
+            SseBusEvent.issueChange(issue, "issue.updated", objectMapper.createObjectNode().put("title", "Renamed"), 3),
+            snapshot);
+
+        assertThat(merged).isSameAs(snapshot);
+    }
+
+    private IssueDTO issue() {
+        IssueDTO issue = new IssueDTO();
+        issue.setId(UUID.randomUUID());
+        issue.setProjectId(UUID.randomUUID());
+        issue.setVersion(5L);
+        return issue;
+    }
+}
@@ -0,0 +1,83 @@
+package com.issuetracker.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SseReplayBufferTest {
+
+    @Test
+    void returnsTheEventsAfterTheGivenSequenceOldestFirst() {
+        SseReplayBuffer buffer = new SseReplayBuffer(10, 1024 * 1024);
+        for (long sequence = 1; sequence <= 4; sequence++) {
+            buffer.append(sequence, frame(sequence), null);
+        }
+
+        assertThat(sequences(buffer.entriesAfter(2))).containsExactly(3L, 4L);
+        assertThat(sequences(buffer.entriesAfter(0))).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(buffer.entriesAfter(4)).isEmpty();
+    }
+
+    @Test
+    void resumingFromAnEvictedEventRequiresAReload() {
+        SseReplayBuffer buffer = new SseReplayBuffer(2, 1024 * 1024);
+        for (long sequence = 1; sequence <= 4; sequence++) {
+            buffer.append(sequence, frame(sequence), null);
+        }
+
+        // Events 1 and 2 were evicted: a client holding 1 missed 2, one holding 2 missed nothing evicted
+        assertThat(buffer.entriesAfter(1)).isNull();
+        assertThat(sequences(buffer.entriesAfter(2))).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void evictsByEncodedSizeButKeepsTheLatestEvent() {
+        SseFrame large = SseFrame.of("1", "issue.updated", "x".repeat(600), UUID.randomUUID());
+        SseReplayBuffer buffer = new SseReplayBuffer(100, 1000);
+
+        buffer.append(1, large, null);
+        buffer.append(2, large, null);
+        assertThat(buffer.entriesAfter(0)).isNull();
+        assertThat(sequences(buffer.entriesAfter(1))).containsExactly(2L);
+
+        // Larger than the whole budget on its own, still kept so the previous event is the only one lost
+        SseFrame huge = SseFrame.of("3", "issue.updated", "x".repeat(2000), UUID.randomUUID());
+        buffer.append(3, huge, null);
+        assertThat(sequences(buffer.entriesAfter(2))).containsExactly(3L);
+    }
+
+    @Test
+    void deltaSubscribersReplayTheDeltaFrame() {
+        SseFrame frame = frame(1);
+        SseFrame delta = SseFrame.of("1", "issue.updated", "{\"patch\":{}}", UUID.randomUUID());
+        SseReplayBuffer buffer = new SseReplayBuffer(10, 1024 * 1024);
+        buffer.append(1, frame, delta);
+        buffer.append(2, frame(2), null);
+
+        SseSubscriber deltas = subscriber(true);
+        SseSubscriber snapshots = subscriber(false);
+        List<SseReplayBuffer.Entry> entries = buffer.entriesAfter(0);
+
+        assertThat(entries.get(0).frameFor(deltas)).isSameAs(delta);
+        assertThat(entries.get(0).frameFor(snapshots)).isSameAs(frame);
+        // Events without a delta are sent whole to everyone
+        assertThat(entries.get(1).frameFor(deltas)).isSameAs(entries.get(1).frame());
+    }
+
+    private static SseFrame frame(long sequence) {
+        return SseFrame.of(String.valueOf(sequence), "issue.updated", "{}", UUID.randomUUID());
+    }
+
+    private static SseSubscriber subscriber(boolean deltas) {
+        return new SseSubscriber("global", UUID.randomUUID(), deltas, mock(SseConnection.class), 16,
+            SseOverflowPolicy.COALESCE, Runnable::run, policy -> { });
+    }
+
+    private static List<Long> sequences(List<SseReplayBuffer.Entry> entries) {
+        return entries.stream().map(SseReplayBuffer.Entry::sequence).toList();
+    }
+}
@@ -0,0 +1,398 @@
+package com.issuetracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.issuetracker.backend.dto.IssueDTO;
+import com.issuetracker.backend.dto.UserDTO;
+import com.issuetracker.backend.exception.BadRequestException;
+import com.issuetracker.backend.exception.ResourceNotFoundException;
+import com.issuetracker.backend.model.IssuePriority;
+import com.issuetracker.backend.model.IssueStatus;
+import com.issuetracker.backend.repository.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SseServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) // As configured by Spring Boot
+        .build();
+
+    private final UUID userId = UUID.randomUUID();
+
+    private final UUID projectA = UUID.randomUUID();
+
+    private final UUID projectB = UUID.randomUUID();
+
+    private SseService service;
+
+    private ProjectRepository projectRepository;
+
+    private EventBus eventBus;
+
+    private SseDispatcher dispatcher;
+
+    // Second node sharing the event bus, for tests spanning nodes
+    private SseService otherNode;
+
+    @BeforeEach
+    void setUp() {
+        service = new SseService();
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+            service.stop();
+        }
+        if (otherNode != null) {
+            otherNode.stop();
+        }
+    }
+
+    @Test
+    void revocationIsAppliedWhenTheDispatchQueueIsFull() throws Exception {
+        start();
+        RecordingConnection connection = new RecordingConnection();
+        service.subscribe(null, userId, null, false, connection);
+        assertThat(connection.nextEvent()).isEqualTo("connected");
+
+        // Jam the dispatcher: its thread is busy and its single queue slot taken, so broadcasts are dropped
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatchAfterCommit(() -> awaitQuietly(release));
+        dispatcher.dispatchAfterCommit(() -> { });
+        try {
+            service.revokeProjectAccess(userId, projectA);
+
+            // Events reaching this node from the bus after the revocation
+            eventBus.publish(SseBusEvent.issue(issue(projectA), "issue.updated"));
+            eventBus.publish(SseBusEvent.issue(issue(projectB), "issue.updated"));
+
+            assertThat(connection.nextEvent()).isEqualTo("issue.updated");
+            assertThat(connection.projectsReceived).containsExactly(projectB);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void resyncRevalidatesAccessOfOpenConnections() throws Exception {
+        start();
+        RecordingConnection global = new RecordingConnection();
+        service.subscribe(null, userId, null, false, global);
+        RecordingConnection project = new RecordingConnection();
+        service.subscribe(projectA, userId, null, false, project);
+        assertThat(global.nextEvent()).isEqualTo("connected");
+        assertThat(project.nextEvent()).isEqualTo("connected");
+
+        // Access to project A was revoked, but the revocation never reached this node
+        List<Object[]> access = new ArrayList<>();
+        access.add(new Object[] {userId, projectB});
+        when(projectRepository.findAccessByUserIds(anyCollection())).thenReturn(access);
+        eventBus.publish(SseBusEvent.resync());
+
+        eventBus.publish(SseBusEvent.issue(issue(projectA), "issue.updated"));
+        eventBus.publish(SseBusEvent.issue(issue(projectB), "issue.updated"));
+
+        assertThat(global.nextEvent()).isEqualTo("reload");
+        assertThat(global.nextEvent()).isEqualTo("issue.updated");
+        assertThat(global.projectsReceived).containsExactly(projectB);
+        // Closed rather than told to reload; on reconnect its access is checked again
+        assertThat(project.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(project.projectsReceived).isEmpty();
+    }
+
+    @Test
+    void topicChangeReceivedByAnotherNodeIsAppliedToTheStream() throws Exception {
+        start(new InProcessEventBus() {
+            @Override
+            public boolean isDistributed() {
+                return true;
+            }
+        });
+        otherNode = new SseService();
+        ReflectionTestUtils.setField(otherNode, "objectMapper", objectMapper);
+        startNode(otherNode);
+
+        RecordingConnection connection = new RecordingConnection();
+        SseStream stream = service.openStream(userId, List.of(SseTopic.project(projectA)), null, false, connection);
+        assertThat(connection.nextEvent()).isEqualTo("connected");
+
+        // The request reached the node not holding the stream
+        assertThat(otherNode.updateStreamTopics(stream.getId(), userId, List.of(SseTopic.project(projectB)),
+            List.of(SseTopic.project(projectA)))).isEmpty();
+
+        eventBus.publish(SseBusEvent.issue(issue(projectA), "issue.updated"));
+        eventBus.publish(SseBusEvent.issue(issue(projectB), "issue.updated"));
+        assertThat(connection.nextEvent()).isEqualTo("issue.updated");
+        assertThat(connection.projectsReceived).containsExactly(projectB);
+        assertThat(stream.topics()).containsExactly(SseTopic.project(projectB));
+    }
+
+    @Test
+    void topicChangeForAnotherUsersStreamIsIgnored() throws Exception {
+        start(new InProcessEventBus() {
+            @Override
+            public boolean isDistributed() {
+                return true;
+            }
+        });
+        RecordingConnection connection = new RecordingConnection();
+        SseStream stream = service.openStream(userId, List.of(SseTopic.project(projectA)), null, false, connection);
+
+        eventBus.publish(SseBusEvent.streamTopics(stream.getId(), UUID.randomUUID(),
+            List.of(SseTopic.project(projectB)), List.of()));
+
+        assertThat(stream.topics()).containsExactly(SseTopic.project(projectA));
+    }
+
+    @Test
+    void streamTopicsAreAddedAndRemovedWithoutReconnecting() throws Exception {
+        start();
+        RecordingConnection connection = new RecordingConnection();
+        SseStream stream = service.openStream(userId, List.of(SseTopic.project(projectA)), null, false, connection);
+        assertThat(connection.nextEvent()).isEqualTo("connected");
+        IssueDTO followed = issue(projectB);
+
+        assertThat(service.updateStreamTopics(stream.getId(), userId,
+            List.of(SseTopic.issue(followed.getId(), projectB)), List.of(SseTopic.project(projectA))))
+            .contains(List.of(SseTopic.issue(followed.getId(), projectB)));
+
+        eventBus.publish(SseBusEvent.issue(issue(projectA), "issue.updated"));
+        eventBus.publish(SseBusEvent.issue(issue(projectB), "issue.updated"));
+        eventBus.publish(SseBusEvent.issue(followed, "issue.updated"));
+        assertThat(connection.nextEvent()).isEqualTo("issue.updated");
+        assertThat(connection.issuesReceived).containsExactly(followed.getId());
+
+        // Following the whole project again, the issue's events arrive once
+        service.updateStreamTopics(stream.getId(), userId, List.of(SseTopic.project(projectB)), List.of());
+        eventBus.publish(SseBusEvent.issue(followed, "issue.updated"));
+        assertThat(connection.nextEvent()).isEqualTo("issue.updated");
+        assertThat(connection.issuesReceived).containsExactly(followed.getId(), followed.getId());
+        assertThat(stream.topics()).containsExactlyInAnyOrder(
+            SseTopic.issue(followed.getId(), projectB), SseTopic.project(projectB));
+    }
+
+    @Test
+    void topicChangeBeyondTheLimitLeavesTheStreamUnchanged() throws Exception {
+        start();
+        ReflectionTestUtils.setField(service, "maxStreamTopics", 1);
+        RecordingConnection connection = new RecordingConnection();
+        SseStream stream = service.openStream(userId, List.of(SseTopic.project(projectA)), null, false, connection);
+
+        assertThatThrownBy(() -> service.updateStreamTopics(stream.getId(), userId,
+            List.of(SseTopic.project(projectB)), List.of()))
+            .isInstanceOf(BadRequestException.class);
+        assertThat(stream.topics()).containsExactly(SseTopic.project(projectA));
+
+        // A topic removed in the same change makes room for the added one
+        assertThat(service.updateStreamTopics(stream.getId(), userId,
+            List.of(SseTopic.project(projectB)), List.of(SseTopic.project(projectA))))
+            .contains(List.of(SseTopic.project(projectB)));
+    }
+
+    @Test
+    void topicChangeForAnUnknownStreamIsNotFoundOnASingleNode() {
+        start();
+        RecordingConnection connection = new RecordingConnection();
+        SseStream stream = service.openStream(userId, List.of(SseTopic.project(projectA)), null, false, connection);
+
+        assertThatThrownBy(() -> service.updateStreamTopics(UUID.randomUUID(), userId,
+            List.of(SseTopic.project(projectB)), List.of()))
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.updateStreamTopics(stream.getId(), UUID.randomUUID(),
+            List.of(SseTopic.project(projectB)), List.of()))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void reconnectingClientReceivesTheEventsItMissed() throws Exception {
+        start();
+        RecordingConnection first = new RecordingConnection();
+        service.subscribe(projectA, userId, null, false, first);
+        assertThat(first.nextEvent()).isEqualTo("connected");
+        List<IssueDTO> issues = List.of(issue(projectA), issue(projectA), issue(projectA));
+        for (IssueDTO issue : issues) {
+            eventBus.publish(SseBusEvent.issue(issue, "issue.updated"));
+            assertThat(first.nextEvent()).isEqualTo("issue.updated");
+        }
+
+        RecordingConnection resumed = new RecordingConnection();
+        service.subscribe(projectA, userId, first.eventIds.get(0), false, resumed);
+
+        assertThat(resumed.nextEvent()).isEqualTo("connected");
+        assertThat(resumed.nextEvent()).isEqualTo("issue.updated");
+        assertThat(resumed.nextEvent()).isEqualTo("issue.updated");
+        assertThat(resumed.eventIds).isEqualTo(first.eventIds.subList(1, 3));
+        assertThat(resumed.issuesReceived).containsExactly(issues.get(1).getId(), issues.get(2).getId());
+    }
+
+    @Test
+    void reconnectingClientIsToldToReloadOnceMissedEventsWereEvicted() throws Exception {
+        start();
+        ReflectionTestUtils.setField(service, "replayBufferSize", 2);
+        RecordingConnection first = new RecordingConnection();
+        service.subscribe(projectA, userId, null, false, first);
+        assertThat(first.nextEvent()).isEqualTo("connected");
+        for (int i = 0; i < 4; i++) {
+            eventBus.publish(SseBusEvent.issue(issue(projectA), "issue.updated"));
+            assertThat(first.nextEvent()).isEqualTo("issue.updated");
+        }
+
+        RecordingConnection resumed = new RecordingConnection();
+        service.subscribe(projectA, userId, first.eventIds.get(0), false, resumed);
+
+        assertThat(resumed.nextEvent()).isEqualTo("connected");
+        assertThat(resumed.nextEvent()).isEqualTo("reload");
+        assertThat(resumed.issuesReceived).isEmpty();
+        // An ID from before a restart cannot be resumed either
+        RecordingConnection stale = new RecordingConnection();
+        service.subscribe(projectA, userId, "1-1", false, stale);
+        assertThat(stale.nextEvent()).isEqualTo("connected");
+        assertThat(stale.nextEvent()).isEqualTo("reload");
+    }
+
+    private void start() {
+        start(new InProcessEventBus());
+    }
+
+    private void start(EventBus bus) {
+        projectRepository = mock(ProjectRepository.class);
+        when(projectRepository.findIdsByUserIdAsMemberOrOwner(userId)).thenReturn(Set.of(projectA, projectB));
+        eventBus = bus;
+
+        dispatcher = new SseDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 1);
+        ReflectionTestUtils.setField(dispatcher, "meterRegistry", new SimpleMeterRegistry());
+        dispatcher.start();
+
+        startNode(service);
+    }
+
+    private void startNode(SseService service) {
+        ReflectionTestUtils.setField(service, "sseDispatcher", dispatcher);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(service, "eventBus", eventBus);
+        ReflectionTestUtils.setField(service, "bufferSize", 256);
+        ReflectionTestUtils.setField(service, "overflowPolicy", SseOverflowPolicy.COALESCE);
+        ReflectionTestUtils.setField(service, "writerThreads", 2);
+        ReflectionTestUtils.setField(service, "heartbeatIntervalMillis", 60000L);
+        ReflectionTestUtils.setField(service, "replayBufferSize", 100);
+        ReflectionTestUtils.setField(service, "replayBufferBytes", 1048576L);
+        ReflectionTestUtils.setField(service, "maxStreamTopics", 100);
+        service.start();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private IssueDTO issue(UUID projectId) {
+        IssueDTO issue = issue("Description");
+        issue.setProjectId(projectId);
+        return issue;
+    }
+
+    private IssueDTO issue(String description) {
+        UserDTO assignee = new UserDTO();
+        assignee.setId(UUID.randomUUID());
+        assignee.setEmail("assignee@example.com");
+        assignee.setFullName("Assigned User");
+        LocalDateTime now = LocalDateTime.now();
+        return new IssueDTO(UUID.randomUUID(), UUID.randomUUID(), "Project", "Large issue", description,
+            IssueStatus.OPEN, IssuePriority.HIGH, assignee, assignee, UUID.randomUUID(), now, now, 0, 7L);
+    }
+
+    /**
+     * Connection recording the events written to it
+     */
+    private class RecordingConnection implements SseConnection {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        private final List<UUID> projectsReceived = new ArrayList<>();
+
+        private final List<UUID> issuesReceived = new ArrayList<>();
+
+        private final List<String> eventIds = new ArrayList<>();
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        String nextEvent() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public synchronized void write(SseFrame frame) throws IOException {
+            if (frame.getEventName() == null) {
+                return;
+            }
+            if (frame.getEventName().startsWith("issue.")) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                frame.writeTo(out);
+                String data = out.toString(StandardCharsets.UTF_8);
+                String json = data.substring(data.indexOf("data:") + 5, data.indexOf('\n', data.indexOf("data:")));
+                IssueDTO issue = objectMapper.readValue(json, IssueDTO.class);
+                projectsReceived.add(issue.getProjectId());
+                issuesReceived.add(issue.getId());
+                if (data.startsWith("id:")) {
+                    eventIds.add(data.substring(3, data.indexOf('\n')));
+                }
+            }
+            events.add(frame.getEventName());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onWritable(Runnable callback) {
+        }
+
+        @Override
+        public void onClose(Runnable callback) {
+        }
+    }
+}
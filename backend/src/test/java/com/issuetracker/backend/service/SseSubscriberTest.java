@@ -0,0 +1,121 @@
+package com.issuetracker.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SseSubscriberTest {
+
+    private final SseFrame frame = SseFrame.of("issue.updated", "{}");
+
+    @Test
+    void unexpectedWriteFailureClosesTheSubscriber() throws Exception {
+        SseConnection connection = mock(SseConnection.class);
+        when(connection.isReady()).thenReturn(true);
+        RuntimeException failure = new RuntimeException("Converter failed");
+        doThrow(failure).when(connection).write(any());
+
+        SseSubscriber subscriber = newSubscriber(connection, Runnable::run);
+
+        assertThat(subscriber.offer(frame)).isTrue();
+
+        assertThat(subscriber.isClosed()).isTrue();
+        assertThat(subscriber.offer(frame)).isFalse();
+        // The drain request was released, so nothing is reported as still being written
+        assertThat(subscriber.isQuietSince(System.currentTimeMillis() + 1)).isTrue();
+        verify(connection).completeWithError(failure);
+    }
+
+    @Test
+    void reportsWriteStuckOnTheConnection() throws Exception {
+        SseConnection connection = mock(SseConnection.class);
+        when(connection.isReady()).thenReturn(true);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(connection).write(any());
+
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            SseSubscriber subscriber = newSubscriber(connection, writer::execute);
+            subscriber.offer(frame);
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(subscriber.isWritingSince(System.currentTimeMillis() + 1)).isTrue();
+            assertThat(subscriber.isWritingSince(System.currentTimeMillis() - 60000)).isFalse();
+
+            release.countDown();
+            writer.shutdown();
+            assertThat(writer.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscriber.isWritingSince(System.currentTimeMillis() + 1)).isFalse();
+            assertThat(subscriber.snapshot().sent()).isEqualTo(1);
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+
+    @Test
+    void clientIsToldToReloadOnceTheBufferDrainedAfterADrop() throws Exception {
+        SseConnection connection = mock(SseConnection.class);
+        List<String> written = new ArrayList<>();
+        doAnswer(invocation -> written.add(invocation.<SseFrame>getArgument(0).getEventName()))
+            .when(connection).write(any());
+        List<Runnable> drains = new ArrayList<>();
+
+        SseSubscriber subscriber = new SseSubscriber("global", UUID.randomUUID(), false, connection, 2,
+            SseOverflowPolicy.COALESCE, drains::add, policy -> { });
+        subscriber.offer(SseFrame.of("1", "issue.updated", "{}", UUID.randomUUID()));
+        subscriber.offer(SseFrame.of("2", "issue.updated", "{}", UUID.randomUUID()));
+        // Nothing to coalesce with, so the oldest event is dropped
+        subscriber.offer(SseFrame.of("3", "issue.created", "{}", null));
+
+        when(connection.isReady()).thenReturn(true);
+        drains.forEach(Runnable::run);
+
+        assertThat(written).containsExactly("issue.updated", "issue.created", "reload");
+        assertThat(subscriber.snapshot().dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void coalescedEventsNeedNoReload() throws Exception {
+        SseConnection connection = mock(SseConnection.class);
+        List<String> written = new ArrayList<>();
+        doAnswer(invocation -> written.add(invocation.<SseFrame>getArgument(0).getEventName()))
+            .when(connection).write(any());
+        List<Runnable> drains = new ArrayList<>();
+        UUID issueId = UUID.randomUUID();
+
+        SseSubscriber subscriber = new SseSubscriber("global", UUID.randomUUID(), false, connection, 1,
+            SseOverflowPolicy.COALESCE, drains::add, policy -> { });
+        subscriber.offer(SseFrame.of("1", "issue.updated", "{}", issueId));
+        subscriber.offer(SseFrame.of("2", "issue.updated", "{}", issueId));
+
+        when(connection.isReady()).thenReturn(true);
+        drains.forEach(Runnable::run);
+
+        assertThat(written).containsExactly("issue.updated");
+    }
+
+    private SseSubscriber newSubscriber(SseConnection connection, Executor writer) {
+        return new SseSubscriber("global", UUID.randomUUID(), false, connection, 16,
+            SseOverflowPolicy.COALESCE, writer, policy -> { });
+    }
+}
@@ -15,6 +15,19 @@ export interface Issue {
   createdAt: string;
   updatedAt: string;
   commentCount: number;
+  version: number;  // Incremented on every change
+}
+
+/**
+ * Issue change sent over SSE to delta subscribers: a JSON Merge Patch turning
+ * the issue at baseVersion into the issue at version
+ */
+export interface IssueDelta {
+  id: string;  // UUID
+  projectId: string;  // UUID
+  baseVersion: number;
+  version: number;
+  patch: Partial<Issue>;
 }
 
 export interface CreateIssueRequest {
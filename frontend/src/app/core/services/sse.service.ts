@@ -1,147 +1,310 @@
 import { Injectable, NgZone } from '@angular/core';
-import { Observable, Subject } from 'rxjs';
-import { Issue } from '../models/issue.model';
-import { Project } from '../models/project.model';
+import { HttpClient } from '@angular/common/http';
+import { Observable, Subscriber } from 'rxjs';
+import { environment } from '../../../environments/environment';
 
 export interface SseEvent<T = any> {
   type: string;
   data: T;
 }
 
+interface StreamListener {
+  topics: Set<string>;
+  subscriber: Subscriber<SseEvent>;
+}
+
+// Same limit as app.sse.stream.max-topics on the server
+const MAX_STREAM_TOPICS = 100;
+
+const ISSUE_EVENT_TYPES = [
+  'issue.created',
+  'issue.updated',
+  'issue.deleted',
+  'issue.status.changed',
+  'issue.priority.changed',
+  'issue.assigned',
+];
+
+const USER_EVENT_TYPES = [
+  'project.member.added',
+  'project.member.removed',
+  'project.updated',
+  'project.deleted',
+];
+
+/**
+ * All server-sent events of the app travel over one multiplexed stream (/api/sse/stream).
+ *
+ * Views subscribe to topics: 'user' for project membership events, 'project:<id>' for the issue
+ * events of a project and 'issue:<id>' for those of one issue. The stream is opened with the first
+ * topic and closed after the last one is released; topics in between are added and removed through
+ * POST /api/sse/stream/{streamId}/topics, without reconnecting.
+ *
+ * Issue changes arrive as IssueDelta patches (creations and deletions still carry the full issue).
+ */
 @Injectable({
   providedIn: 'root',
 })
 export class SseService {
-  private readonly API_URL = 'http://localhost:8080/api/sse';
-  private eventSources: Map<string, EventSource> = new Map();
+  private readonly API_URL = `${environment.apiUrl}/sse`;
 
-  constructor(private ngZone: NgZone) {}
+  private eventSource?: EventSource;
+  private streamId?: string;
+  // Topics in the URL of the open EventSource, restored by the browser when it reconnects
+  private urlTopics: string[] = [];
+  // Views subscribed to each topic
+  private topicCounts = new Map<string, number>();
+  private listeners = new Set<StreamListener>();
+
+  constructor(private ngZone: NgZone, private http: HttpClient) {}
 
   /**
    * Subscribe to issue updates for a specific project
    */
-  subscribeToProjectIssues(projectId: string): Observable<SseEvent<Issue>> {
-    const key = `project-${projectId}`;
-    const url = `${this.API_URL}/issues?projectId=${projectId}`;
-    return this.createEventSource(key, url);
+  subscribeToProjectIssues(projectId: string): Observable<SseEvent> {
+    return this.subscribe([`project:${projectId}`]);
+  }
+
+  /**
+   * Subscribe to the updates of a single issue
+   */
+  subscribeToIssue(issueId: string): Observable<SseEvent> {
+    return this.subscribe([`issue:${issueId}`]);
   }
 
   /**
-   * Subscribe to all issue updates (across all projects)
+   * Subscribe to issue updates of several projects, and to membership events so the caller can
+   * follow projects the user joins or leaves
    */
-  subscribeToAllIssues(): Observable<SseEvent<Issue>> {
-    const key = 'all-issues';
-    const url = `${this.API_URL}/issues`;
-    return this.createEventSource(key, url);
+  subscribeToProjectsIssues(projectIds: string[]): Observable<SseEvent> {
+    const topics = projectIds.map((id) => `project:${id}`);
+    if (topics.length >= MAX_STREAM_TOPICS) {
+      console.warn(`Only following the first ${MAX_STREAM_TOPICS - 1} of ${topics.length} projects`);
+    }
+    return this.subscribe(['user', ...topics.slice(0, MAX_STREAM_TOPICS - 1)]);
   }
 
   /**
    * Subscribe to user-specific events (project membership changes, etc.)
    */
-  subscribeToUserEvents(): Observable<SseEvent<Project>> {
-    const key = 'user-events';
-    const url = `${this.API_URL}/user`;
-    return this.createEventSource(key, url);
+  subscribeToUserEvents(): Observable<SseEvent> {
+    return this.subscribe(['user']);
+  }
+
+  /**
+   * Events of the given topics, plus 'reload' when events were missed. The topics are released
+   * when the subscription ends.
+   */
+  subscribe(topics: string[]): Observable<SseEvent> {
+    return new Observable<SseEvent>((subscriber) => {
+      const listener: StreamListener = { topics: new Set(topics), subscriber };
+      this.listeners.add(listener);
+      this.acquireTopics([...listener.topics]);
+
+      return () => {
+        this.listeners.delete(listener);
+        this.releaseTopics([...listener.topics]);
+      };
+    });
   }
 
   /**
-   * Create an EventSource and return an Observable
+   * Close the stream, ending every subscription
    */
-  private createEventSource<T>(key: string, url: string): Observable<SseEvent<T>> {
-    // Close existing connection if any
-    this.closeConnection(key);
+  closeAllConnections(): void {
+    [...this.listeners].forEach((listener) => listener.subscriber.complete());
+    this.closeStream();
+  }
+
+  /**
+   * Get the number of active connections
+   */
+  getActiveConnectionCount(): number {
+    return this.eventSource ? 1 : 0;
+  }
+
+  private acquireTopics(topics: string[]): void {
+    const added = topics.filter((topic) => !this.topicCounts.has(topic));
+    topics.forEach((topic) => this.topicCounts.set(topic, (this.topicCounts.get(topic) ?? 0) + 1));
+
+    if (!this.eventSource) {
+      this.openStream();
+    } else if (added.length > 0) {
+      this.updateTopics(added, []);
+    }
+  }
+
+  private releaseTopics(topics: string[]): void {
+    const removed: string[] = [];
+    topics.forEach((topic) => {
+      const count = (this.topicCounts.get(topic) ?? 0) - 1;
+      if (count > 0) {
+        this.topicCounts.set(topic, count);
+      } else if (this.topicCounts.delete(topic)) {
+        removed.push(topic);
+      }
+    });
+
+    if (this.topicCounts.size === 0) {
+      this.closeStream();
+    } else if (removed.length > 0) {
+      this.updateTopics([], removed);
+    }
+  }
 
-    const subject = new Subject<SseEvent<T>>();
+  /**
+   * Change the topics of the open stream. Before its 'connected' event there is no stream ID yet;
+   * the topics are then synchronized once it arrives. If the change fails, the stream is reopened
+   * with the current topics in its URL.
+   */
+  private updateTopics(add: string[], remove: string[]): void {
+    const streamId = this.streamId;
+    if (!streamId) {
+      return;
+    }
+    this.http.post(`${this.API_URL}/stream/${streamId}/topics`, { add, remove }).subscribe({
+      error: (error) => {
+        console.error('Failed to update SSE stream topics, reopening the stream:', error);
+        // Unless the stream was closed or replaced meanwhile
+        if (this.streamId === streamId) {
+          this.closeStream();
+          this.reopenStream();
+        }
+      },
+    });
+  }
 
-    // Get auth token
+  private openStream(): void {
     const token = localStorage.getItem('auth_token');
     if (!token) {
-      subject.error(new Error('No authentication token found'));
-      return subject.asObservable();
+      [...this.listeners].forEach((listener) =>
+        listener.subscriber.error(new Error('No authentication token found')));
+      return;
     }
 
-    // Note: EventSource doesn't support custom headers directly
-    // We need to pass the token as a query parameter or use a different approach
-    const urlWithToken = `${url}${url.includes('?') ? '&' : '?'}token=${encodeURIComponent(token)}`;
+    this.urlTopics = [...this.topicCounts.keys()];
+    // EventSource can't send headers, so the token goes in the query string
+    const url = `${this.API_URL}/stream?topics=${encodeURIComponent(this.urlTopics.join(','))}` +
+      `&delta=true&token=${encodeURIComponent(token)}`;
 
     this.ngZone.runOutsideAngular(() => {
-      const eventSource = new EventSource(urlWithToken);
+      const eventSource = new EventSource(url);
+      this.eventSource = eventSource;
 
-      eventSource.onopen = () => {
+      // Sent on every (re)connect. After a reconnect only the URL's topics are restored, so the
+      // topics added or removed since are applied again to the new stream
+      eventSource.addEventListener('connected', (event: MessageEvent) => {
         this.ngZone.run(() => {
-          console.log(`SSE connection opened: ${key}`);
+          const connected = JSON.parse(event.data) as { streamId: string; topics: string[] };
+          this.streamId = connected.streamId;
+          const wanted = [...this.topicCounts.keys()];
+          const add = wanted.filter((topic) => !connected.topics.includes(topic));
+          const remove = connected.topics.filter((topic) => !this.topicCounts.has(topic));
+          if (add.length > 0 || remove.length > 0) {
+            this.updateTopics(add, remove);
+          }
+          console.log(`SSE stream connected: ${connected.streamId}`);
         });
-      };
+      });
+
+      eventSource.addEventListener('reload', (event: MessageEvent) => {
+        this.ngZone.run(() => this.dispatch(() => true, { type: 'reload', data: event.data }));
+      });
+
+      // Access to a topic's project was lost; the topic is gone from the stream
+      eventSource.addEventListener('topic.removed', (event: MessageEvent) => {
+        this.ngZone.run(() => this.onTopicRemoved(event.data));
+      });
+
+      ISSUE_EVENT_TYPES.forEach((eventType) => {
+        eventSource.addEventListener(eventType, (event: MessageEvent) => {
+          this.ngZone.run(() => {
+            const data = this.parse(eventType, event.data);
+            if (data) {
+              this.dispatch(
+                (topics) => topics.has(`project:${data.projectId}`) || topics.has(`issue:${data.id}`),
+                { type: eventType, data });
+            }
+          });
+        });
+      });
 
-      // Listen for all event types
-      const eventTypes = [
-        'connected',
-        'issue.created',
-        'issue.updated',
-        'issue.deleted',
-        'issue.status.changed',
-        'issue.priority.changed',
-        'issue.assigned',
-        'project.member.added',
-        'project.member.removed',
-        'project.updated',
-        'project.deleted',
-      ];
-
-      eventTypes.forEach((eventType) => {
+      USER_EVENT_TYPES.forEach((eventType) => {
         eventSource.addEventListener(eventType, (event: MessageEvent) => {
           this.ngZone.run(() => {
-            try {
-              const data = eventType === 'connected' ? event.data : JSON.parse(event.data);
-              subject.next({ type: eventType, data });
-            } catch (error) {
-              console.error(`Error parsing SSE event (${eventType}):`, error);
+            const data = this.parse(eventType, event.data);
+            if (data) {
+              this.dispatch((topics) => topics.has('user'), { type: eventType, data });
             }
           });
         });
       });
 
+      // The browser reconnects on its own and sends Last-Event-ID, so the server can replay
+      // missed events (or send 'reload'); only give up once the connection is closed for good
       eventSource.onerror = (error) => {
         this.ngZone.run(() => {
-          console.error(`SSE connection error: ${key}`, error);
-          subject.error(error);
-          this.closeConnection(key);
+          if (eventSource.readyState !== EventSource.CLOSED) {
+            this.streamId = undefined;
+            console.warn('SSE stream lost, reconnecting');
+            return;
+          }
+          const stale = this.urlTopics.some((topic) => !this.topicCounts.has(topic));
+          this.closeStream();
+          if (stale && this.topicCounts.size > 0) {
+            // Refused because of a topic released since (e.g. a deleted issue): retry with the current ones
+            this.reopenStream();
+            return;
+          }
+          console.error('SSE stream error', error);
+          [...this.listeners].forEach((listener) => listener.subscriber.error(error));
         });
       };
-
-      this.eventSources.set(key, eventSource);
     });
+  }
 
-    return subject.asObservable();
+  private closeStream(): void {
+    if (this.eventSource) {
+      this.eventSource.close();
+      this.eventSource = undefined;
+      this.streamId = undefined;
+      this.urlTopics = [];
+      console.log('SSE stream closed');
+    }
   }
 
-  /**
-   * Close a specific SSE connection
-   */
-  closeConnection(key: string): void {
-    const eventSource = this.eventSources.get(key);
-    if (eventSource) {
-      eventSource.close();
-      this.eventSources.delete(key);
-      console.log(`SSE connection closed: ${key}`);
+  private onTopicRemoved(topic: string): void {
+    this.topicCounts.delete(topic);
+    this.dispatch((topics) => topics.has(topic), { type: 'topic.removed', data: topic });
+    [...this.listeners].forEach((listener) => listener.topics.delete(topic));
+
+    // The browser would send it again on reconnect and be refused, so reopen without it
+    if (this.urlTopics.includes(topic)) {
+      this.closeStream();
+      if (this.topicCounts.size > 0) {
+        this.reopenStream();
+      }
     }
   }
 
-  /**
-   * Close all SSE connections
-   */
-  closeAllConnections(): void {
-    this.eventSources.forEach((eventSource, key) => {
-      eventSource.close();
-      console.log(`SSE connection closed: ${key}`);
-    });
-    this.eventSources.clear();
+  private reopenStream(): void {
+    this.openStream();
+    // Events sent while reopening are not replayed
+    this.dispatch(() => true, { type: 'reload', data: 'Stream reopened' });
   }
 
-  /**
-   * Get the number of active connections
-   */
-  getActiveConnectionCount(): number {
-    return this.eventSources.size;
+  private dispatch(matches: (topics: Set<string>) => boolean, event: SseEvent): void {
+    [...this.listeners]
+      .filter((listener) => matches(listener.topics))
+      .forEach((listener) => listener.subscriber.next(event));
+  }
+
+  private parse(eventType: string, data: string): any {
+    try {
+      return JSON.parse(data);
+    } catch (error) {
+      console.error(`Error parsing SSE event (${eventType}):`, error);
+      return null;
+    }
   }
 }
@@ -7,7 +7,7 @@ import { IssueService } from '../../../core/services/issue.service';
 import { ProjectService } from '../../../core/services/project.service';
 import { AuthService } from '../../../core/services/auth.service';
 import { SseService } from '../../../core/services/sse.service';
-import { Issue, Comment, ActivityLog } from '../../../core/models/issue.model';
+import { Issue, IssueDelta, Comment, ActivityLog } from '../../../core/models/issue.model';
 import { IssueStatus, IssuePriority } from '../../../core/models/enums';
 import { User } from '../../../core/models/user.model';
 import { ProjectMember } from '../../../core/models/project.model';
@@ -94,48 +94,42 @@ export class IssueDetailComponent implements OnInit, OnDestroy {
     this.destroy$.next();
     this.destroy$.complete();
     
-    // Clean up SSE subscription
+    // Clean up SSE subscription, releasing its topic on the shared stream
     if (this.sseSubscription) {
       this.sseSubscription.unsubscribe();
     }
-    if (this.issue) {
-      this.sseService.closeConnection(`project-${this.issue.projectId}`);
-    }
   }
 
   private subscribeToIssueUpdates(issueId: string): void {
-    // We'll subscribe to the project's issues since we don't have issue-specific SSE
-    // We'll filter for our specific issue
-    this.issueService.getIssue(issueId).subscribe({
-      next: (issue) => {
-        const observable = this.sseService.subscribeToProjectIssues(issue.projectId);
-        
-        this.sseSubscription = observable.subscribe({
-          next: (event) => {
-            // Only process events for this specific issue
-            if (event.data.id !== issueId) {
-              return;
-            }
-
+    this.sseSubscription = this.sseService.subscribeToIssue(issueId).subscribe({
+      next: (event) => {
+        switch (event.type) {
+          case 'reload':
+            // Missed events are no longer available on the server
+            this.loadIssue(issueId);
+            break;
+
+          case 'issue.updated':
+          case 'issue.status.changed':
+          case 'issue.priority.changed':
+          case 'issue.assigned':
             console.log('Issue update received:', event);
-            
-            switch (event.type) {
-              case 'issue.updated':
-              case 'issue.status.changed':
-              case 'issue.priority.changed':
-              case 'issue.assigned':
-                this.handleIssueUpdated(event.data);
-                break;
-              
-              case 'issue.deleted':
-                this.handleIssueDeleted();
-                break;
+            if ('patch' in event.data) {
+              this.handleIssueDelta(event.data);
+            } else {
+              this.handleIssueUpdated(event.data);
             }
-          },
-          error: (error) => {
-            console.error('SSE connection error:', error);
-          }
-        });
+            break;
+
+          case 'issue.deleted':
+          case 'topic.removed':
+            // Deleted, or access to its project was lost
+            this.handleIssueDeleted();
+            break;
+        }
+      },
+      error: (error) => {
+        console.error('SSE connection error:', error);
       }
     });
   }
@@ -159,6 +153,18 @@ export class IssueDetailComponent implements OnInit, OnDestroy {
     }
   }
 
+  private handleIssueDelta(delta: IssueDelta): void {
+    if (!this.issue || this.issue.version >= delta.version) {
+      return;  // Already up to date
+    }
+    if (this.issue.version !== delta.baseVersion) {
+      // Missed a change, fetch the full issue instead
+      this.loadIssue(delta.id);
+      return;
+    }
+    this.handleIssueUpdated({ ...this.issue, ...delta.patch, version: delta.version });
+  }
+
   private handleIssueDeleted(): void {
     console.log('Issue was deleted, redirecting...');
     this.router.navigate(['/issues'], {
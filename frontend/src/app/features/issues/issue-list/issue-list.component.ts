@@ -8,7 +8,7 @@ import { IssueService } from '../../../core/services/issue.service';
 import { ProjectService } from '../../../core/services/project.service';
 import { AuthService } from '../../../core/services/auth.service';
 import { SseService } from '../../../core/services/sse.service';
-import { Issue, PageResponse } from '../../../core/models/issue.model';
+import { Issue, IssueDelta, PageResponse } from '../../../core/models/issue.model';
 import { IssueStatus, IssuePriority } from '../../../core/models/enums';
 import { Project } from '../../../core/models/project.model';
 import { User } from '../../../core/models/user.model';
@@ -92,6 +92,7 @@ export class IssueListComponent implements OnInit, OnDestroy {
         this.selectedProjectId = params['projectId'];  // Already a string (UUID)
       }
       this.loadIssues();
+      this.subscribeToIssueUpdates();
     });
 
     // Load current user if needed
@@ -110,32 +111,29 @@ export class IssueListComponent implements OnInit, OnDestroy {
         this.currentPage = 0;
         this.loadIssues();
       });
-
-    // Subscribe to SSE for real-time updates
-    this.subscribeToIssueUpdates();
   }
 
   ngOnDestroy(): void {
     this.destroy$.next();
     this.destroy$.complete();
     
-    // Clean up SSE subscriptions
+    // Clean up SSE subscription, releasing its topics on the shared stream
     if (this.sseSubscription) {
       this.sseSubscription.unsubscribe();
     }
-    if (this.selectedProjectId) {
-      this.sseService.closeConnection(`project-${this.selectedProjectId}`);
-    } else {
-      this.sseService.closeConnection('all-issues');
-    }
   }
 
+  /**
+   * Follow the selected project, or all of the user's projects, on the shared SSE stream.
+   * Called again whenever the project filter or the project list changes.
+   */
   private subscribeToIssueUpdates(): void {
-    // Subscribe to project-specific or all issues based on filter
     const observable = this.selectedProjectId
       ? this.sseService.subscribeToProjectIssues(this.selectedProjectId)
-      : this.sseService.subscribeToAllIssues();
+      : this.sseService.subscribeToProjectsIssues(this.projects.map(project => project.id));
 
+    // Subscribe before releasing the previous topics, so the stream stays open in between
+    const previous = this.sseSubscription;
     this.sseSubscription = observable.subscribe({
       next: (event) => {
         console.log('Issue event received:', event);
@@ -149,18 +147,59 @@ export class IssueListComponent implements OnInit, OnDestroy {
           case 'issue.status.changed':
           case 'issue.priority.changed':
           case 'issue.assigned':
-            this.handleIssueUpdated(event.data);
+            if ('patch' in event.data) {
+              this.handleIssueDelta(event.data);
+            } else {
+              this.handleIssueUpdated(event.data);
+            }
             break;
           
           case 'issue.deleted':
             this.handleIssueDeleted(event.data);
             break;
+
+          case 'project.member.added':
+          case 'project.member.removed':
+          case 'project.deleted':
+          case 'topic.removed':
+            // Projects followed when showing all of them, or access to the selected one was lost
+            this.loadProjects();
+            this.loadIssues();
+            break;
+
+          case 'reload':
+            // Missed events are no longer available on the server
+            this.loadIssues();
+            break;
         }
       },
       error: (error) => {
         console.error('SSE connection error:', error);
       }
     });
+    previous?.unsubscribe();
+  }
+
+  /**
+   * Apply a patch to the listed issue when it is at the patch's base version. Otherwise, or when
+   * a change to a filtered field may bring an unlisted issue into the list, fetch the full issue.
+   */
+  private handleIssueDelta(delta: IssueDelta): void {
+    const current = this.issues.find(i => i.id === delta.id);
+    if (current && current.version >= delta.version) {
+      return;  // Already up to date
+    }
+    if (current && current.version === delta.baseVersion) {
+      this.handleIssueUpdated({ ...current, ...delta.patch, version: delta.version });
+      return;
+    }
+    const filtered = ['status', 'priority', 'title'].some(field => field in delta.patch);
+    if (current || filtered) {
+      this.issueService.getIssue(delta.id).subscribe({
+        next: (issue) => this.handleIssueUpdated(issue),
+        error: (error) => console.error('Error loading updated issue:', error)
+      });
+    }
   }
 
   private handleIssueCreated(issue: Issue): void {
@@ -246,6 +285,9 @@ export class IssueListComponent implements OnInit, OnDestroy {
     this.projectService.getProjects().subscribe({
       next: (projects) => {
         this.projects = projects;
+        if (!this.selectedProjectId) {
+          this.subscribeToIssueUpdates();
+        }
       },
       error: (error) => {
         console.error('Error loading projects:', error);
@@ -383,6 +425,7 @@ export class IssueListComponent implements OnInit, OnDestroy {
     this.selectedProjectId = select.value || undefined;  // Already a string (UUID)
     this.currentPage = 0;
     this.loadIssues();
+    this.subscribeToIssueUpdates();
   }
 
   onStatusFilterChange(event: Event): void {
@@ -421,6 +464,7 @@ export class IssueListComponent implements OnInit, OnDestroy {
     this.sortDir = 'desc';
     this.currentPage = 0;
     this.loadIssues();
+    this.subscribeToIssueUpdates();
   }
 
   nextPage(): void {
@@ -45,11 +45,10 @@ export class ProjectListComponent implements OnInit, OnDestroy {
   }
 
   ngOnDestroy(): void {
-    // Clean up SSE subscription
+    // Clean up SSE subscription, releasing its topic on the shared stream
     if (this.sseSubscription) {
       this.sseSubscription.unsubscribe();
     }
-    this.sseService.closeConnection('user-events');
   }
 
   private subscribeToUserEvents(): void {